@@ -5,8 +5,14 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 
 @SpringBootApplication
 public class ShareItGateway {
+    private static final String COMMON_POOL_PARALLELISM = "java.util.concurrent.ForkJoinPool.common.parallelism";
 
     public static void main(String[] args) {
+        // Ответы HttpClient.sendAsync завершаются в пуле CompletableFuture по умолчанию. На одном ядре это
+        // новый поток на каждый ответ, поэтому общий пул должен быть не меньше двух потоков
+        if (System.getProperty(COMMON_POOL_PARALLELISM) == null && Runtime.getRuntime().availableProcessors() < 2) {
+            System.setProperty(COMMON_POOL_PARALLELISM, "2");
+        }
         SpringApplication.run(ShareItGateway.class, args);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BookingApproveAllDto {
+    @NotEmpty
+    @Size(max = 1000)
+    private List<@NotNull @Positive Long> ids;
+    @NotNull
+    private Boolean approved;
+}
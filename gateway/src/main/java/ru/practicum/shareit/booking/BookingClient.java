@@ -1,56 +1,73 @@
 package ru.practicum.shareit.booking;
 
+import java.net.http.HttpClient;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.HttpClientProperties;
+import ru.practicum.shareit.client.ResponseCache;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build()
-        );
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, HttpClient httpClient,
+                         HttpClientProperties properties, ObjectMapper objectMapper, ResponseCache responseCache) {
+        super(serverUrl + API_PREFIX, httpClient, properties, objectMapper, responseCache);
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingState state) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name()
-        );
-        return get("?state={state}", userId, parameters);
+    public CompletableFuture<ResponseEntity<Object>> getBookings(long userId, BookingState state, @Nullable String cursor, int size) {
+        return findByState("", userId, state, cursor, size);
     }
 
 
-    public ResponseEntity<Object> findByOwnerIdAndState(long ownerId, BookingState state) {
-        Map<String, Object> parameters = Map.of("state", state.name());
-        return get("?state={state}", ownerId, parameters);
+    public CompletableFuture<ResponseEntity<Object>> findByOwnerIdAndState(long ownerId, BookingState state, @Nullable String cursor, int size) {
+        return findByState("/owner", ownerId, state, cursor, size);
+    }
+
+    public CompletableFuture<ResponseEntity<ResponseBodyEmitter>> exportByOwnerId(long ownerId) {
+        return stream("/owner/export", ownerId);
     }
 
 
-    public ResponseEntity<Object> bookItem(long userId, BookingDto requestDto) {
+    public CompletableFuture<ResponseEntity<Object>> bookItem(long userId, BookingDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> getBooking(long userId, long bookingId) {
+    public CompletableFuture<ResponseEntity<Object>> getBooking(long userId, long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> approve(long bookingId, long ownerId, Boolean isApproved) {
+    public CompletableFuture<ResponseEntity<Object>> approve(long bookingId, long ownerId, Boolean isApproved) {
         Map<String, Object> parameters = Map.of("approved", isApproved);
         String path = "/" + bookingId + "?approved={approved}";
         return patch(path, ownerId, parameters, null);
     }
+
+    public CompletableFuture<ResponseEntity<Object>> approveAll(long ownerId, BookingApproveAllDto approveDto) {
+        return patch("/approve", ownerId, approveDto);
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> findByState(String path, long userId, BookingState state, @Nullable String cursor, int size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state.name());
+        parameters.put("size", size);
+        String query = "?state={state}&size={size}";
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+            query += "&cursor={cursor}";
+        }
+        return get(path + query, userId, parameters);
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,6 +16,9 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Validated
@@ -25,41 +29,59 @@ public class BookingController {
     private final BookingClient bookingClient;
 
     @GetMapping
-    public ResponseEntity<Object> findByBookerIdAndState(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                         @RequestParam(name = "state", defaultValue = "all") String stateParam) {
+    public CompletableFuture<ResponseEntity<Object>> findByBookerIdAndState(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                                            @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                                                            @RequestParam(name = "cursor", required = false) String cursor,
+                                                                            @RequestParam(name = "size", defaultValue = "100") @Positive @Max(500) int size) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking with userId={}, state={}, from={}, size={}", userId, stateParam);
-        return bookingClient.getBookings(userId, state);
+        log.info("Get booking with userId={}, state={}, cursor={}, size={}", userId, stateParam, cursor, size);
+        return bookingClient.getBookings(userId, state, cursor, size);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> findByOwnerIdAndState(@RequestHeader(name = "X-Sharer-User-Id") @Positive long ownerId,
-                                                        @RequestParam(name = "state", defaultValue = "all") String stateParam) {
+    public CompletableFuture<ResponseEntity<Object>> findByOwnerIdAndState(@RequestHeader(name = "X-Sharer-User-Id") @Positive long ownerId,
+                                                                           @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                                                           @RequestParam(name = "cursor", required = false) String cursor,
+                                                                           @RequestParam(name = "size", defaultValue = "100") @Positive @Max(500) int size) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking with ownerId={}, state={}", ownerId, stateParam);
-        return bookingClient.findByOwnerIdAndState(ownerId, state);
+        log.info("Get booking with ownerId={}, state={}, cursor={}, size={}", ownerId, stateParam, cursor, size);
+        return bookingClient.findByOwnerIdAndState(ownerId, state, cursor, size);
+    }
+
+    @GetMapping("/owner/export")
+    public CompletableFuture<ResponseEntity<ResponseBodyEmitter>> exportByOwnerId(
+            @RequestHeader(name = "X-Sharer-User-Id") @Positive long ownerId) {
+        log.info("Export bookings with ownerId={}", ownerId);
+        return bookingClient.exportByOwnerId(ownerId);
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> findById(@RequestHeader("X-Sharer-User-Id") long userId,
-                                           @PathVariable Long bookingId) {
+    public CompletableFuture<ResponseEntity<Object>> findById(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                              @PathVariable Long bookingId) {
         log.info("Get booking with id={}, userId={}", bookingId, userId);
         return bookingClient.getBooking(userId, bookingId);
     }
 
     @PostMapping
-    public ResponseEntity<Object> create(@RequestHeader("X-Sharer-User-Id") long userId,
-                                         @RequestBody @Valid BookingDto bookingDto) {
+    public CompletableFuture<ResponseEntity<Object>> create(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                            @RequestBody @Valid BookingDto bookingDto) {
         log.info("Create booking with userId={}, Dto {}", userId, bookingDto);
         return bookingClient.bookItem(userId, bookingDto);
     }
 
+    @PatchMapping("/approve")
+    public CompletableFuture<ResponseEntity<Object>> approveAll(@RequestHeader(name = "X-Sharer-User-Id") @Positive long ownerId,
+                                                                @RequestBody @Valid BookingApproveAllDto approveDto) {
+        log.info("Approve bookings with ownerId={}, dto {}", ownerId, approveDto);
+        return bookingClient.approveAll(ownerId, approveDto);
+    }
+
     @PatchMapping("/{id}")
-    public ResponseEntity<Object> approve(@PathVariable(name = "id") long bookingId,
-                                          @RequestHeader(name = "X-Sharer-User-Id") @Positive long ownerId,
-                                          @RequestParam(name = "approved") Boolean isApproved) {
+    public CompletableFuture<ResponseEntity<Object>> approve(@PathVariable(name = "id") long bookingId,
+                                                             @RequestHeader(name = "X-Sharer-User-Id") @Positive long ownerId,
+                                                             @RequestParam(name = "approved") Boolean isApproved) {
         log.info("Approve booking with id={}, ownerId={}, approved={}", bookingId, ownerId, isApproved);
         return bookingClient.approve(bookingId, ownerId, isApproved);
     }
@@ -1,121 +1,250 @@
 package ru.practicum.shareit.client;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
 
-import org.springframework.http.HttpEntity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.util.UriBuilderFactory;
 
+// Запросы к серверу отправляются асинхронно: пока сервер отвечает, поток обработки запроса не занят
 public class BaseClient {
-    protected final RestTemplate rest;
-
-    public BaseClient(RestTemplate rest) {
-        this.rest = rest;
-    }
-
-    protected ResponseEntity<Object> get(String path) {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "te", "trailer", "upgrade",
+            "proxy-authenticate", "proxy-authorization");
+
+    private final HttpClient httpClient;
+    private final UriBuilderFactory uriBuilderFactory;
+    private final Duration responseTimeout;
+    private final ObjectMapper objectMapper;
+    private final ResponseCache responseCache;
+
+    public BaseClient(String serverUrl, HttpClient httpClient, HttpClientProperties properties,
+                      ObjectMapper objectMapper, ResponseCache responseCache) {
+        this.httpClient = httpClient;
+        this.uriBuilderFactory = new DefaultUriBuilderFactory(serverUrl);
+        this.responseTimeout = properties.getResponseTimeout();
+        this.objectMapper = objectMapper;
+        this.responseCache = responseCache;
+    }
+
+    protected CompletableFuture<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected ResponseEntity<Object> patch(String path, long userId) {
+    protected CompletableFuture<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, setDefaultHeaders(userId));
+    // Тело ответа сервера копируется клиенту частями по мере получения, без разбора и буферизации
+    protected CompletableFuture<ResponseEntity<ResponseBodyEmitter>> stream(String path, long userId) {
+        HttpRequest request = HttpRequest.newBuilder(uriBuilderFactory.expand(path))
+                .timeout(responseTimeout)
+                .header(USER_ID_HEADER, String.valueOf(userId))
+                .GET()
+                .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofPublisher())
+                .thenApply(serverResponse -> {
+                    ResponseBodyEmitter emitter = new ResponseBodyEmitter() {
+                        @Override
+                        protected void extendResponse(ServerHttpResponse outputMessage) {
+                            // Тело читается, только когда ответ клиенту готов к записи: иначе emitter копит его в памяти
+                            serverResponse.body().subscribe(new EmitterSubscriber(this));
+                        }
+                    };
+                    return ResponseEntity.status(serverResponse.statusCode())
+                            .headers(copyHeaders(serverResponse.headers().map()))
+                            .body(emitter);
+                });
+    }
+
+    private <T> CompletableFuture<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        URI uri = parameters != null ?
+                uriBuilderFactory.expand(path, parameters) :
+                uriBuilderFactory.expand(path);
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(responseTimeout)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .method(method.name(), toBodyPublisher(body));
+        if (userId != null) {
+            request.header(USER_ID_HEADER, String.valueOf(userId));
+        }
 
-        ResponseEntity<Object> shareitServerResponse;
-        try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+        // GET-ответы с ETag кэшируются и перепроверяются на сервере через If-None-Match
+        String cacheKey = method == HttpMethod.GET ? ResponseCache.key(uri, userId) : null;
+        ResponseCache.CachedResponse cached = cacheKey != null ? responseCache.get(cacheKey) : null;
+        if (cached != null) {
+            if (cached.isFresh()) {
+                return CompletableFuture.completedFuture(cached.toResponse());
+            }
+            if (cached.eTag() != null) {
+                request.header(HttpHeaders.IF_NONE_MATCH, cached.eTag());
             }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
         }
-        return prepareGatewayResponse(shareitServerResponse);
+
+        // Ответ сервера передаётся клиенту как есть, без разбора JSON
+        return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(serverResponse -> {
+                    ResponseEntity<byte[]> response = prepareGatewayResponse(serverResponse);
+                    if (cacheKey != null) {
+                        if (cached != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                            return cached.toResponse();
+                        }
+                        // Ответ с ошибкой или без валидаторов вытесняет прежнюю запись
+                        responseCache.put(cacheKey, response);
+                    }
+                    return new ResponseEntity<>(response.getBody(), response.getHeaders(), response.getStatusCode());
+                });
+    }
+
+    private HttpRequest.BodyPublisher toBodyPublisher(@Nullable Object body) {
+        if (body == null) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
-    private HttpHeaders setDefaultHeaders(Long userId) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
-        if (userId != null) {
-            headers.set("X-Sharer-User-Id", String.valueOf(userId));
+    private static ResponseEntity<byte[]> prepareGatewayResponse(HttpResponse<byte[]> response) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.statusCode())
+                .headers(copyHeaders(response.headers().map()));
+
+        if (response.body() != null && response.body().length > 0) {
+            return responseBuilder.body(response.body());
         }
-        return headers;
+
+        return responseBuilder.build();
+    }
+
+    // Hop-by-hop заголовки относятся к соединению с сервером
+    private static HttpHeaders copyHeaders(Map<String, List<String>> headers) {
+        HttpHeaders result = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                result.put(name, values);
+            }
+        });
+        return result;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    // Следующая часть тела запрашивается только после записи предыдущей клиенту
+    private static class EmitterSubscriber implements Flow.Subscriber<List<ByteBuffer>> {
+        private final ResponseBodyEmitter emitter;
+        private Flow.Subscription subscription;
+
+        EmitterSubscriber(ResponseBodyEmitter emitter) {
+            this.emitter = emitter;
         }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
 
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            try {
+                for (ByteBuffer buffer : buffers) {
+                    byte[] bytes = new byte[buffer.remaining()];
+                    buffer.get(bytes);
+                    emitter.send(bytes);
+                }
+                subscription.request(1);
+            } catch (IOException | IllegalStateException e) {
+                // Клиент отключился: дочитывать ответ сервера незачем
+                subscription.cancel();
+                emitter.completeWithError(e);
+            }
         }
 
-        return responseBuilder.build();
+        @Override
+        public void onError(Throwable throwable) {
+            emitter.completeWithError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            emitter.complete();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+
+@Configuration
+@EnableConfigurationProperties(HttpClientProperties.class)
+public class HttpClientConfig {
+
+    // Один клиент на все обращения к серверу: он сам держит пул keep-alive соединений,
+    // а ответы ждёт без блокировки потоков
+    @Bean
+    public HttpClient shareItServerHttpClient(HttpClientProperties properties) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(properties.getConnectTimeout())
+                .build();
+    }
+}
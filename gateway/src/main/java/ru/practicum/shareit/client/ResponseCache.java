@@ -0,0 +1,84 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Component
+public class ResponseCache {
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+
+    private final Cache<String, CachedResponse> cache;
+
+    @Autowired
+    public ResponseCache(@Value("${shareit-server.response-cache.max-size:64MB}") DataSize maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, CachedResponse response) -> key.length() + response.body().length)
+                .build();
+    }
+
+    // Ответы зависят от пользователя, поэтому он входит в ключ
+    public static String key(URI uri, @Nullable Long userId) {
+        return userId + " " + uri;
+    }
+
+    @Nullable
+    public CachedResponse get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(String key, ResponseEntity<byte[]> response) {
+        HttpHeaders headers = response.getHeaders();
+        String cacheControl = headers.getCacheControl();
+        String eTag = headers.getETag();
+        long maxAgeSeconds = maxAge(cacheControl);
+
+        boolean storable = response.getStatusCode() == HttpStatus.OK
+                && response.getBody() != null
+                && (cacheControl == null || !cacheControl.contains("no-store"))
+                && (eTag != null || maxAgeSeconds > 0);
+        if (!storable) {
+            invalidate(key);
+            return;
+        }
+
+        long freshUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(maxAgeSeconds);
+        cache.put(key, new CachedResponse(eTag, headers, response.getBody(), freshUntil));
+    }
+
+    public void invalidate(String key) {
+        cache.invalidate(key);
+    }
+
+    private static long maxAge(@Nullable String cacheControl) {
+        if (cacheControl == null || cacheControl.contains("no-cache")) {
+            return 0;
+        }
+        Matcher matcher = MAX_AGE.matcher(cacheControl);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : 0;
+    }
+
+    public record CachedResponse(@Nullable String eTag, HttpHeaders headers, byte[] body, long freshUntilNanos) {
+
+        public boolean isFresh() {
+            return System.nanoTime() - freshUntilNanos < 0;
+        }
+
+        public ResponseEntity<Object> toResponse() {
+            return ResponseEntity.ok().headers(headers).body(body);
+        }
+    }
+}
@@ -1,53 +1,62 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.HttpClientProperties;
+import ru.practicum.shareit.client.ResponseCache;
 import ru.practicum.shareit.item.comment.CommentDto;
 
+import java.net.http.HttpClient;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build()
-        );
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, HttpClient httpClient,
+                      HttpClientProperties properties, ObjectMapper objectMapper, ResponseCache responseCache) {
+        super(serverUrl + API_PREFIX, httpClient, properties, objectMapper, responseCache);
     }
 
-    public ResponseEntity<Object> findById(long itemId) {
+    public CompletableFuture<ResponseEntity<Object>> findById(long itemId) {
         return get("/" + itemId);
     }
 
-    public ResponseEntity<Object> findByOwnerId(long ownerId) {
+    public CompletableFuture<ResponseEntity<Object>> findByOwnerId(long ownerId) {
         return get("", ownerId);
     }
 
-    public ResponseEntity<Object> findByText(long ownerId, String query) {
+    public CompletableFuture<ResponseEntity<Object>> findFreeIntervals(long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of("from", from, "to", to);
+        return get("/" + itemId + "/availability?from={from}&to={to}", null, parameters);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> findByText(long ownerId, String query) {
         Map<String, Object> parameters = Map.of("query", query);
         return get("/search?text={query}", ownerId, parameters);
     }
 
-    public ResponseEntity<Object> create(long ownerId, ItemDto itemDto) {
+    public CompletableFuture<ResponseEntity<Object>> create(long ownerId, ItemDto itemDto) {
         return post("", ownerId, itemDto);
     }
 
-    public ResponseEntity<Object> update(long id, long ownerId, ItemDto itemDto) {
+    public CompletableFuture<ResponseEntity<Object>> createAll(long ownerId, List<ItemDto> itemDtos) {
+        return post("/batch", ownerId, itemDtos);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> update(long id, long ownerId, ItemDto itemDto) {
         return patch("/" + id, ownerId, itemDto);
     }
 
-    public ResponseEntity<Object> createComment(long itemId, long ownerId, CommentDto commentDto) {
+    public CompletableFuture<ResponseEntity<Object>> createComment(long itemId, long ownerId, CommentDto commentDto) {
         return post("/" + itemId + "/comment", ownerId, commentDto);
     }
 }
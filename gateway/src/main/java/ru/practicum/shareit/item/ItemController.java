@@ -1,9 +1,12 @@
 package ru.practicum.shareit.item;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
@@ -17,6 +20,10 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import ru.practicum.shareit.item.comment.CommentDto;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 @Slf4j
 @Validated
 @RequiredArgsConstructor
@@ -26,45 +33,64 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @GetMapping
-    public ResponseEntity<Object> findByOwnerIdWithComments(@RequestHeader(name = "X-Sharer-User-Id") @Positive long ownerId) {
+    public CompletableFuture<ResponseEntity<Object>> findByOwnerIdWithComments(@RequestHeader(name = "X-Sharer-User-Id") @Positive long ownerId) {
         log.info("Get items with ownerId={}", ownerId);
         return itemClient.findByOwnerId(ownerId);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Object> findByIdWithCommentsAndBookings(@PathVariable(name = "id") @Positive long itemId) {
+    public CompletableFuture<ResponseEntity<Object>> findByIdWithCommentsAndBookings(@PathVariable(name = "id") @Positive long itemId) {
         log.info("Get item with id={}", itemId);
         return itemClient.findById(itemId);
     }
 
+    @GetMapping("/{id}/availability")
+    public CompletableFuture<ResponseEntity<Object>> findFreeIntervals(
+            @PathVariable(name = "id") @Positive long itemId,
+            @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Get free intervals for item with id={}, from={}, to={}", itemId, from, to);
+        return itemClient.findFreeIntervals(itemId, from, to);
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<Object> findByText(@RequestHeader(name = "X-Sharer-User-Id") @Positive long ownerId,
-                                             @RequestParam(name = "text", defaultValue = "") String query) {
+    public CompletableFuture<ResponseEntity<Object>> findByText(@RequestHeader(name = "X-Sharer-User-Id") @Positive long ownerId,
+                                                                @RequestParam(name = "text", defaultValue = "") String query) {
         log.info("Get items with ownerId={}, text={}", ownerId, query);
         return itemClient.findByText(ownerId, query);
     }
 
     @PostMapping
     @Validated(ItemAction.OnCreate.class)
-    public ResponseEntity<Object> create(@RequestHeader(name = "X-Sharer-User-Id") @Positive long ownerId,
-                                         @RequestBody @Valid ItemDto itemDto) {
+    public CompletableFuture<ResponseEntity<Object>> create(@RequestHeader(name = "X-Sharer-User-Id") @Positive long ownerId,
+                                                            @RequestBody @Valid ItemDto itemDto) {
         log.info("Create item with ownerId={}, dto {}", ownerId, itemDto);
         return itemClient.create(ownerId, itemDto);
     }
 
+    @PostMapping("/batch")
+    @Validated(ItemAction.OnCreate.class)
+    public CompletableFuture<ResponseEntity<Object>> createAll(
+            @RequestHeader(name = "X-Sharer-User-Id") @Positive long ownerId,
+            @RequestBody @NotEmpty(groups = ItemAction.OnCreate.class)
+            @Size(max = 1000, groups = ItemAction.OnCreate.class) List<@Valid ItemDto> itemDtos) {
+        log.info("Create {} items with ownerId={}", itemDtos.size(), ownerId);
+        return itemClient.createAll(ownerId, itemDtos);
+    }
+
     @PatchMapping("/{id}")
     @Validated(ItemAction.OnUpdate.class)
-    public ResponseEntity<Object> update(@PathVariable long id,
-                                         @RequestHeader(name = "X-Sharer-User-Id") @Positive long ownerId,
-                                         @RequestBody @Valid ItemDto itemDto) {
+    public CompletableFuture<ResponseEntity<Object>> update(@PathVariable long id,
+                                                            @RequestHeader(name = "X-Sharer-User-Id") @Positive long ownerId,
+                                                            @RequestBody @Valid ItemDto itemDto) {
         log.info("Update item with id={}, ownerId={}, dto {}", id, ownerId, itemDto);
         return itemClient.update(id, ownerId, itemDto);
     }
 
     @PostMapping("/{id}/comment")
-    public ResponseEntity<Object> createComment(@PathVariable(name = "id") long itemId,
-                                                @RequestHeader(name = "X-Sharer-User-Id") @Positive long ownerId,
-                                                @RequestBody @Valid CommentDto commentDto) {
+    public CompletableFuture<ResponseEntity<Object>> createComment(@PathVariable(name = "id") long itemId,
+                                                                   @RequestHeader(name = "X-Sharer-User-Id") @Positive long ownerId,
+                                                                   @RequestBody @Valid CommentDto commentDto) {
         log.info("Create comment to item with itemId={}, ownerId={}, dto {}", itemId, ownerId, commentDto);
         return itemClient.createComment(itemId, ownerId, commentDto);
     }
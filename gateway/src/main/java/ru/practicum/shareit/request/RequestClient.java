@@ -1,41 +1,50 @@
 package ru.practicum.shareit.request;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.HttpClientProperties;
+import ru.practicum.shareit.client.ResponseCache;
+
+import java.net.http.HttpClient;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class RequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build()
-        );
+    public RequestClient(@Value("${shareit-server.url}") String serverUrl, HttpClient httpClient,
+                         HttpClientProperties properties, ObjectMapper objectMapper, ResponseCache responseCache) {
+        super(serverUrl + API_PREFIX, httpClient, properties, objectMapper, responseCache);
     }
 
-    public ResponseEntity<Object> findByRequestorId(long requestorId) {
+    public CompletableFuture<ResponseEntity<Object>> findByRequestorId(long requestorId) {
         return get("", requestorId);
     }
 
-    public ResponseEntity<Object> findAll() {
-        return get("/all");
+    public CompletableFuture<ResponseEntity<Object>> findAll(long userId, @Nullable String cursor, int size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("size", size);
+        String query = "?size={size}";
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+            query += "&cursor={cursor}";
+        }
+        return get("/all" + query, userId, parameters);
     }
 
-    public ResponseEntity<Object> findById(long requestId) {
+    public CompletableFuture<ResponseEntity<Object>> findById(long requestId) {
         return get("/" + requestId);
     }
 
-    public ResponseEntity<Object> create(long requestorId, RequestDto requestDto) {
+    public CompletableFuture<ResponseEntity<Object>> create(long requestorId, RequestDto requestDto) {
         return post("", requestorId, requestDto);
     }
 }
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.request;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,6 +14,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Validated
@@ -23,26 +27,28 @@ public class RequestController {
     private final RequestClient requestClient;
 
     @GetMapping
-    public ResponseEntity<Object> findByRequestorId(@RequestHeader(name = "X-Sharer-User-Id") @Positive long requestorId) {
+    public CompletableFuture<ResponseEntity<Object>> findByRequestorId(@RequestHeader(name = "X-Sharer-User-Id") @Positive long requestorId) {
         log.info("Get requests with requestorId={}", requestorId);
         return requestClient.findByRequestorId(requestorId);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> findAll() {
-        log.info("Get all requests");
-        return requestClient.findAll();
+    public CompletableFuture<ResponseEntity<Object>> findAll(@RequestHeader(name = "X-Sharer-User-Id") @Positive long userId,
+                                                             @RequestParam(name = "cursor", required = false) String cursor,
+                                                             @RequestParam(name = "size", defaultValue = "100") @Positive @Max(500) int size) {
+        log.info("Get all requests for userId={}, cursor={}, size={}", userId, cursor, size);
+        return requestClient.findAll(userId, cursor, size);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Object> findById(@PathVariable(name = "id") @Positive long requestId) {
+    public CompletableFuture<ResponseEntity<Object>> findById(@PathVariable(name = "id") @Positive long requestId) {
         log.info("Get request with id={}", requestId);
         return requestClient.findById(requestId);
     }
 
     @PostMapping
-    public ResponseEntity<Object> create(@RequestHeader(name = "X-Sharer-User-Id") @Positive long requestorId,
-                                         @RequestBody @Valid RequestDto requestDto) {
+    public CompletableFuture<ResponseEntity<Object>> create(@RequestHeader(name = "X-Sharer-User-Id") @Positive long requestorId,
+                                                            @RequestBody @Valid RequestDto requestDto) {
         log.info("Create request with requestorId={}, dto {}", requestorId, requestDto);
         return requestClient.create(requestorId, requestDto);
     }
@@ -1,45 +1,44 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.HttpClientProperties;
+import ru.practicum.shareit.client.ResponseCache;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build()
-        );
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, HttpClient httpClient,
+                      HttpClientProperties properties, ObjectMapper objectMapper, ResponseCache responseCache) {
+        super(serverUrl + API_PREFIX, httpClient, properties, objectMapper, responseCache);
     }
 
-    public ResponseEntity<Object> findAll() {
+    public CompletableFuture<ResponseEntity<Object>> findAll() {
         return get("");
     }
 
-    public ResponseEntity<Object> delete(long userId) {
+    public CompletableFuture<ResponseEntity<Object>> delete(long userId) {
         return delete("/" + userId);
     }
 
-    public ResponseEntity<Object> findById(long userId) {
+    public CompletableFuture<ResponseEntity<Object>> findById(long userId) {
         return get("/" + userId);
     }
 
-    public ResponseEntity<Object> create(UserDto userDto) {
+    public CompletableFuture<ResponseEntity<Object>> create(UserDto userDto) {
         return post("", userDto);
     }
 
-    public ResponseEntity<Object> update(long userId, UserDto userDto) {
+    public CompletableFuture<ResponseEntity<Object>> update(long userId, UserDto userDto) {
         return patch("/" + userId, userDto);
     }
 }
\ No newline at end of file
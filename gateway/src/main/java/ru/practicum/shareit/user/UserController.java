@@ -15,6 +15,8 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 
+import java.util.concurrent.CompletableFuture;
+
 @Slf4j
 @Validated
 @RequiredArgsConstructor
@@ -24,34 +26,34 @@ public class UserController {
     private final UserClient userClient;
 
     @GetMapping
-    public ResponseEntity<Object> findAll() {
+    public CompletableFuture<ResponseEntity<Object>> findAll() {
         log.info("Get all users");
         return userClient.findAll();
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Object> findById(@PathVariable @Positive long id) {
+    public CompletableFuture<ResponseEntity<Object>> findById(@PathVariable @Positive long id) {
         log.info("Get user with id={}", id);
         return userClient.findById(id);
     }
 
     @PostMapping
     @Validated(UserAction.OnCreate.class)
-    public ResponseEntity<Object> create(@RequestBody @Valid UserDto userDto) {
+    public CompletableFuture<ResponseEntity<Object>> create(@RequestBody @Valid UserDto userDto) {
         log.info("Create user with dto {}", userDto);
         return userClient.create(userDto);
     }
 
     @PatchMapping("/{id}")
     @Validated(UserAction.OnUpdate.class)
-    public ResponseEntity<Object> update(@PathVariable @Positive long id,
-                                         @RequestBody @Valid UserDto userDto) {
+    public CompletableFuture<ResponseEntity<Object>> update(@PathVariable @Positive long id,
+                                                            @RequestBody @Valid UserDto userDto) {
         log.info("Update user with id={}, dto {}", id, userDto);
         return userClient.update(id, userDto);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Object> delete(@PathVariable @Positive long id) {
+    public CompletableFuture<ResponseEntity<Object>> delete(@PathVariable @Positive long id) {
         log.info("Delete user with id={}", id);
         return userClient.delete(id);
     }
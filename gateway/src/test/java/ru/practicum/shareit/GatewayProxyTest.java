@@ -0,0 +1,112 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.practicum.shareit.client.StubServer;
+import ru.practicum.shareit.client.StubServer.Response;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Один поток Tomcat: запросы, ожидающие ответа сервера, не должны его занимать
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"server.tomcat.threads.max=1", "server.tomcat.threads.min-spare=1"})
+class GatewayProxyTest {
+    private static final StubServer SERVER;
+
+    static {
+        try {
+            SERVER = new StubServer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", SERVER::url);
+    }
+
+    @AfterAll
+    static void stopServer() {
+        SERVER.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        SERVER.reset();
+    }
+
+    @Test
+    void forwardsServerResponseAsIs() throws Exception {
+        String error = "{\"error\":\"Вещь с id: 1 не найдена\"}";
+        SERVER.enqueue(Response.status(404).header("Content-Type", "application/json").body(error));
+
+        HttpResponse<String> response = send(get("/items/1").build());
+
+        assertEquals(404, response.statusCode());
+        assertEquals("application/json", response.headers().firstValue("Content-Type").orElseThrow());
+        assertEquals(error, response.body());
+        assertEquals("/items/1", SERVER.requests().getFirst().uri());
+    }
+
+    @Test
+    void streamsExport() throws Exception {
+        String export = "{\"id\":1}\n{\"id\":2}\n{\"id\":3}\n";
+        SERVER.enqueue(Response.status(200).header("Content-Type", "application/x-ndjson").body(export));
+
+        HttpResponse<String> response = send(get("/bookings/owner/export").header("X-Sharer-User-Id", "1").build());
+
+        assertEquals(200, response.statusCode());
+        assertEquals("application/x-ndjson", response.headers().firstValue("Content-Type").orElseThrow());
+        assertEquals(export, response.body());
+        assertEquals("1", SERVER.requests().getFirst().header("X-Sharer-User-Id"));
+    }
+
+    @Test
+    void doesNotHoldRequestThreadWhileServerResponds() {
+        int requests = 4;
+        for (int i = 0; i < requests; i++) {
+            SERVER.enqueue(Response.ok("{\"id\":1}").delay(Duration.ofSeconds(1)));
+        }
+
+        long start = System.nanoTime();
+        List<CompletableFuture<HttpResponse<String>>> responses = IntStream.range(0, requests)
+                .mapToObj(i -> client.sendAsync(get("/users/" + (i + 1)).build(), HttpResponse.BodyHandlers.ofString()))
+                .toList();
+        responses.forEach(response -> assertEquals(200, response.join().statusCode()));
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // С блокирующим клиентом единственный поток обслужил бы запросы по очереди: не меньше 4 секунд
+        assertTrue(elapsed.compareTo(Duration.ofSeconds(3)) < 0, "elapsed: " + elapsed);
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,166 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.shareit.client.StubServer.Response;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BaseClientTest {
+    private static final String BODY = "{\"id\":1,\"name\":\"Drill\"}";
+
+    private StubServer server;
+    private TestClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new StubServer();
+        client = new TestClient(server.url() + "/items", HttpClient.newHttpClient(),
+                new ResponseCache(DataSize.ofMegabytes(1)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void servesFreshResponseWithoutRequest() {
+        server.enqueue(Response.ok(BODY).header(HttpHeaders.CACHE_CONTROL, "max-age=60"));
+
+        ResponseEntity<Object> first = client.fetch("/1", 1L);
+        ResponseEntity<Object> second = client.fetch("/1", 1L);
+
+        assertEquals(1, server.requests().size());
+        assertEquals("/items/1", server.requests().getFirst().uri());
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+        assertArrayEquals(bytes(BODY), (byte[]) first.getBody());
+        assertArrayEquals(bytes(BODY), (byte[]) second.getBody());
+    }
+
+    @Test
+    void replaysCachedBodyOnNotModified() {
+        server.enqueue(Response.ok(BODY).header(HttpHeaders.ETAG, "\"v1\""));
+        server.enqueue(Response.status(304).header(HttpHeaders.ETAG, "\"v1\""));
+
+        client.fetch("/1", 1L);
+        ResponseEntity<Object> revalidated = client.fetch("/1", 1L);
+
+        List<StubServer.Request> requests = server.requests();
+        assertEquals(2, requests.size());
+        assertNull(requests.get(0).header(HttpHeaders.IF_NONE_MATCH));
+        assertEquals("\"v1\"", requests.get(1).header(HttpHeaders.IF_NONE_MATCH));
+        assertEquals(HttpStatus.OK, revalidated.getStatusCode());
+        assertEquals("\"v1\"", revalidated.getHeaders().getETag());
+        assertArrayEquals(bytes(BODY), (byte[]) revalidated.getBody());
+    }
+
+    @Test
+    void replacesCachedBodyWhenChanged() {
+        String changed = "{\"id\":1,\"name\":\"Hammer\"}";
+        server.enqueue(Response.ok(BODY).header(HttpHeaders.ETAG, "\"v1\""));
+        server.enqueue(Response.ok(changed).header(HttpHeaders.ETAG, "\"v2\""));
+        server.enqueue(Response.status(304));
+
+        client.fetch("/1", 1L);
+        client.fetch("/1", 1L);
+        ResponseEntity<Object> revalidated = client.fetch("/1", 1L);
+
+        assertEquals("\"v1\"", server.requests().get(1).header(HttpHeaders.IF_NONE_MATCH));
+        assertEquals("\"v2\"", server.requests().get(2).header(HttpHeaders.IF_NONE_MATCH));
+        assertArrayEquals(bytes(changed), (byte[]) revalidated.getBody());
+    }
+
+    @Test
+    void doesNotCacheNoStoreResponse() {
+        server.enqueue(Response.ok(BODY).header(HttpHeaders.ETAG, "\"v1\"").header(HttpHeaders.CACHE_CONTROL, "no-store"));
+        server.enqueue(Response.ok(BODY));
+
+        client.fetch("/1", 1L);
+        client.fetch("/1", 1L);
+
+        assertEquals(2, server.requests().size());
+        assertNull(server.requests().get(1).header(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void evictsCachedResponseOnError() {
+        server.enqueue(Response.ok(BODY).header(HttpHeaders.ETAG, "\"v1\""));
+        server.enqueue(Response.status(404).header("Content-Type", "application/json")
+                .body("{\"error\":\"Вещь с id: 1 не найдена\"}"));
+        server.enqueue(Response.status(404));
+
+        client.fetch("/1", 1L);
+        ResponseEntity<Object> missing = client.fetch("/1", 1L);
+        client.fetch("/1", 1L);
+
+        assertEquals(HttpStatus.NOT_FOUND, missing.getStatusCode());
+        assertArrayEquals(bytes("{\"error\":\"Вещь с id: 1 не найдена\"}"), (byte[]) missing.getBody());
+        assertEquals("\"v1\"", server.requests().get(1).header(HttpHeaders.IF_NONE_MATCH));
+        assertNull(server.requests().get(2).header(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void keepsSeparateEntriesPerUser() {
+        String otherBody = "{\"id\":1,\"lastBooking\":null}";
+        server.enqueue(Response.ok(BODY).header(HttpHeaders.CACHE_CONTROL, "max-age=60"));
+        server.enqueue(Response.ok(otherBody));
+
+        client.fetch("/1", 1L);
+        client.fetch("/1", 1L);
+        ResponseEntity<Object> otherUser = client.fetch("/1", 2L);
+
+        assertEquals(2, server.requests().size());
+        assertEquals("1", server.requests().get(0).header("X-Sharer-User-Id"));
+        assertEquals("2", server.requests().get(1).header("X-Sharer-User-Id"));
+        assertNull(server.requests().get(1).header(HttpHeaders.IF_NONE_MATCH));
+        assertArrayEquals(bytes(otherBody), (byte[]) otherUser.getBody());
+    }
+
+    @Test
+    void sendsBodyAsJsonAndBypassesCacheForOtherMethods() {
+        server.enqueue(Response.ok(BODY).header(HttpHeaders.CACHE_CONTROL, "max-age=60"));
+        server.enqueue(Response.ok(BODY));
+
+        client.fetch("/1", 1L);
+        client.update("/1", 1L, Map.of("name", "Drill"));
+
+        StubServer.Request patch = server.requests().get(1);
+        assertEquals("PATCH", patch.method());
+        assertEquals("application/json", patch.header(HttpHeaders.CONTENT_TYPE));
+        assertEquals("{\"name\":\"Drill\"}", new String(patch.body(), StandardCharsets.UTF_8));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static class TestClient extends BaseClient {
+
+        TestClient(String serverUrl, HttpClient httpClient, ResponseCache responseCache) {
+            super(serverUrl, httpClient, new HttpClientProperties(), new ObjectMapper(), responseCache);
+        }
+
+        ResponseEntity<Object> fetch(String path, long userId) {
+            return get(path, userId).join();
+        }
+
+        ResponseEntity<Object> update(String path, long userId, Object body) {
+            return patch(path, userId, body).join();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseCacheTest {
+    private static final String KEY = ResponseCache.key(URI.create("http://localhost/items/1"), 1L);
+    private static final byte[] BODY = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+
+    private ResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ResponseCache(DataSize.ofMegabytes(1));
+    }
+
+    @Test
+    void storesResponseWithMaxAgeAsFresh() {
+        cache.put(KEY, ResponseEntity.ok().cacheControl(CacheControl.maxAge(Duration.ofMinutes(1))).body(BODY));
+
+        ResponseCache.CachedResponse cached = cache.get(KEY);
+        assertNotNull(cached);
+        assertTrue(cached.isFresh());
+        assertNull(cached.eTag());
+        assertArrayEquals(BODY, (byte[]) cached.toResponse().getBody());
+    }
+
+    @Test
+    void storesResponseWithETagForRevalidation() {
+        cache.put(KEY, ResponseEntity.ok().eTag("\"v1\"").cacheControl(CacheControl.noCache()).body(BODY));
+
+        ResponseCache.CachedResponse cached = cache.get(KEY);
+        assertNotNull(cached);
+        assertFalse(cached.isFresh());
+        assertEquals("\"v1\"", cached.eTag());
+    }
+
+    @Test
+    void doesNotStoreNoStoreResponse() {
+        cache.put(KEY, ResponseEntity.ok().eTag("\"v1\"").cacheControl(CacheControl.noStore()).body(BODY));
+
+        assertNull(cache.get(KEY));
+    }
+
+    @Test
+    void doesNotStoreResponseWithoutETagOrMaxAge() {
+        cache.put(KEY, ResponseEntity.ok().body(BODY));
+        cache.put(KEY, ResponseEntity.status(HttpStatus.CREATED).eTag("\"v1\"").body(BODY));
+
+        assertNull(cache.get(KEY));
+    }
+
+    @Test
+    void notStorableResponseReplacesPreviousEntry() {
+        cache.put(KEY, ResponseEntity.ok().eTag("\"v1\"").body(BODY));
+        cache.put(KEY, ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(BODY));
+
+        assertNull(cache.get(KEY));
+    }
+
+    @Test
+    void keyDependsOnUser() {
+        URI uri = URI.create("http://localhost/items/1");
+
+        assertNotEquals(ResponseCache.key(uri, 1L), ResponseCache.key(uri, 2L));
+        assertNotEquals(ResponseCache.key(uri, 1L), ResponseCache.key(uri, null));
+    }
+}
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Заглушка сервера ShareIt: отвечает заданными ответами по очереди и запоминает полученные запросы
+public class StubServer implements AutoCloseable {
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Queue<Response> responses = new ConcurrentLinkedQueue<>();
+    private final List<Request> requests = new CopyOnWriteArrayList<>();
+
+    public StubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public String url() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public void enqueue(Response response) {
+        responses.add(response);
+    }
+
+    public List<Request> requests() {
+        return requests;
+    }
+
+    public void reset() {
+        responses.clear();
+        requests.clear();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.add(new Request(exchange.getRequestMethod(), exchange.getRequestURI().toString(),
+                exchange.getRequestHeaders(), exchange.getRequestBody().readAllBytes()));
+        Response response = responses.poll();
+        if (response == null) {
+            response = Response.status(500).body("{\"error\":\"Неожиданный запрос\"}");
+        }
+
+        try {
+            Thread.sleep(response.delay().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        response.headers().forEach((name, value) -> exchange.getResponseHeaders().set(name, value));
+        // Ответ без тела объявляется длиной -1, ответ с телом передаётся частями
+        boolean hasBody = response.body().length > 0;
+        exchange.sendResponseHeaders(response.status(), hasBody ? 0 : -1);
+        try (OutputStream body = exchange.getResponseBody()) {
+            if (hasBody) {
+                body.write(response.body());
+            }
+        }
+    }
+
+    public record Request(String method, String uri, Headers headers, byte[] body) {
+
+        public String header(String name) {
+            return headers.getFirst(name);
+        }
+    }
+
+    public record Response(int status, Map<String, String> headers, byte[] body, Duration delay) {
+
+        public static Response ok(String body) {
+            return status(200).header("Content-Type", "application/json").body(body);
+        }
+
+        public static Response status(int status) {
+            return new Response(status, Map.of(), new byte[0], Duration.ZERO);
+        }
+
+        public Response header(String name, String value) {
+            Map<String, String> result = new LinkedHashMap<>(headers);
+            result.put(name, value);
+            return new Response(status, result, body, delay);
+        }
+
+        public Response body(String value) {
+            return new Response(status, headers, value.getBytes(StandardCharsets.UTF_8), delay);
+        }
+
+        public Response delay(Duration value) {
+            return new Response(status, headers, body, value);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Замкнутая нагрузка: concurrency клиентов без пауз повторяют GET url в течение seconds секунд.
+// Запуск без компиляции: java Load.java <url> <concurrency> <seconds> [userId]
+public class Load {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: java Load.java <url> <concurrency> <seconds> [userId]");
+            System.exit(1);
+        }
+        URI uri = URI.create(args[0]);
+        int concurrency = Integer.parseInt(args[1]);
+        long durationMillis = Long.parseLong(args[2]) * 1000;
+        String userId = args.length > 3 ? args[3] : "1";
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("X-Sharer-User-Id", userId)
+                .build();
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong errors = new AtomicLong();
+
+        long deadline = System.currentTimeMillis() + durationMillis;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                executor.submit(() -> {
+                    while (System.currentTimeMillis() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies.add(System.nanoTime() - start);
+                    }
+                    return null;
+                });
+            }
+        }
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        if (sorted.length == 0) {
+            System.out.println("req=0 errors=" + errors.get());
+            return;
+        }
+        System.out.printf("req=%d rps=%.0f p50=%.1fms p99=%.1fms p999=%.1fms errors=%d%n",
+                sorted.length,
+                sorted.length / (durationMillis / 1000.0),
+                percentile(sorted, 0.5),
+                percentile(sorted, 0.99),
+                percentile(sorted, 0.999),
+                errors.get());
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        return sorted[(int) (sorted.length * fraction)] / 1e6;
+    }
+}
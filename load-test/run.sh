@@ -0,0 +1,36 @@
+#!/bin/bash
+# Сравнение виртуальных и платформенных потоков: GET /items/{id} через gateway, server на H2.
+# Перед запуском: mvn package -DskipTests. Результаты и выбор режима по умолчанию: load-test/README.md
+# Использование: load-test/run.sh <true|false> [concurrency] [seconds]
+set -euo pipefail
+
+VIRTUAL=${1:?"Usage: $0 <true|false> [concurrency] [seconds]"}
+CONCURRENCY=${2:-200}
+SECONDS_TO_RUN=${3:-15}
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+OPTS="--spring.threads.virtual.enabled=$VIRTUAL --logging.level.root=WARN --logging.level.ru.practicum.shareit=WARN"
+LOGS=$(mktemp -d)
+
+"$JAVA" -jar "$ROOT"/server/target/shareit-server-*.jar --spring.profiles.active=test $OPTS > "$LOGS/server.log" 2>&1 &
+SERVER_PID=$!
+"$JAVA" -jar "$ROOT"/gateway/target/shareit-gateway-*.jar $OPTS > "$LOGS/gateway.log" 2>&1 &
+GATEWAY_PID=$!
+trap 'kill $SERVER_PID $GATEWAY_PID 2>/dev/null; wait $SERVER_PID $GATEWAY_PID 2>/dev/null || true' EXIT
+
+for _ in $(seq 1 60); do
+    if curl -sf localhost:9090/actuator/health > /dev/null && curl -s localhost:8080/users > /dev/null; then
+        break
+    fi
+    sleep 1
+done
+
+curl -s -X POST localhost:8080/users -H 'Content-Type: application/json' \
+    -d '{"name":"Anna","email":"anna@mail.ru"}' > /dev/null
+curl -s -X POST localhost:8080/items -H 'X-Sharer-User-Id: 1' -H 'Content-Type: application/json' \
+    -d '{"name":"Drill","description":"Cordless drill","available":true}' > /dev/null
+
+# Прогрев JIT и пулов соединений, результат не учитывается
+"$JAVA" "$ROOT/load-test/Load.java" http://localhost:8080/items/1 "$CONCURRENCY" 5 > /dev/null
+echo "cpus=$(nproc) virtual=$VIRTUAL concurrency=$CONCURRENCY: $("$JAVA" "$ROOT/load-test/Load.java" http://localhost:8080/items/1 "$CONCURRENCY" "$SECONDS_TO_RUN")"
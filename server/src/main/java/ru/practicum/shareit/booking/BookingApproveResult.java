@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking;
+
+public enum BookingApproveResult {
+    APPROVED,
+    REJECTED,
+    NOT_FOUND,
+    FORBIDDEN,
+    NOT_WAITING,
+    CONFLICT
+}
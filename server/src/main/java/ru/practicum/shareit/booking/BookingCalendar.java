@@ -0,0 +1,171 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Подтверждённые брони по вещам. Время хранится в микросекундах от эпохи - это точность столбцов в БД.
+// Брони, закончившиеся до horizon, в календаре не хранятся: запросы о более раннем времени идут в БД
+@Slf4j
+@Component
+public class BookingCalendar {
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, IntervalList> calendars = new ConcurrentHashMap<>();
+    private volatile Instant horizon;
+    // Брони, снятые во время перестроения: пачка могла прочитать их из БД ещё подтверждёнными.
+    // Проверка с добавлением в rebuild и запись со снятием в remove идут под одной блокировкой
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private Set<Interval> removedDuringRebuild;
+
+    @Autowired
+    public BookingCalendar(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+    }
+
+    // Календарь знает все брони, пересекающиеся с периодами, которые начинаются не раньше horizon
+    public boolean covers(Instant from) {
+        Instant current = horizon;
+        return current != null && !from.isBefore(current);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        // Завершившиеся брони не влияют ни на свободные слоты, ни на проверку пересечений
+        Instant now = Instant.now();
+        long lastId = 0;
+        int loaded = 0;
+        List<BookingInterval> batch;
+        setRemovedDuringRebuild(new HashSet<>());
+        try {
+            do {
+                batch = bookingRepository.findIntervalsAfterId(BookingState.APPROVED, now, lastId, Limit.of(REBUILD_BATCH_SIZE));
+                rebuildLock.lock();
+                try {
+                    // Бронь, подтверждённая во время перестроения, уже добавлена сервисом: повтор IntervalList отбросит
+                    for (BookingInterval booking : batch) {
+                        Interval interval = new Interval(booking.getItemId(),
+                                toMicros(booking.getStartDate()), toMicros(booking.getEndDate()));
+                        if (!removedDuringRebuild.contains(interval)) {
+                            add(interval);
+                        }
+                        lastId = booking.getId();
+                    }
+                } finally {
+                    rebuildLock.unlock();
+                }
+                loaded += batch.size();
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+        } finally {
+            setRemovedDuringRebuild(null);
+        }
+
+        horizon = now;
+        log.info("Booking calendar built: {} bookings, {} items", loaded, calendars.size());
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-calendar.prune-delay}",
+            initialDelayString = "${shareit.booking-calendar.prune-delay}")
+    public void prune() {
+        if (horizon == null) {
+            return;
+        }
+        // Сначала сдвигаем horizon, чтобы запросы о периодах до него уже шли в БД
+        Instant now = Instant.now();
+        horizon = now;
+        long moment = toMicros(now);
+        calendars.keySet().forEach(itemId ->
+                calendars.computeIfPresent(itemId, (key, intervals) -> intervals.pruneEndedBefore(moment) ? null : intervals));
+    }
+
+    public void add(long itemId, Instant start, Instant end) {
+        add(new Interval(itemId, toMicros(start), toMicros(end)));
+    }
+
+    public void remove(long itemId, Instant start, Instant end) {
+        Interval interval = new Interval(itemId, toMicros(start), toMicros(end));
+        rebuildLock.lock();
+        try {
+            if (removedDuringRebuild != null) {
+                removedDuringRebuild.add(interval);
+            }
+            IntervalList intervals = calendars.get(itemId);
+            if (intervals != null) {
+                intervals.remove(interval.start(), interval.end());
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public boolean hasOverlap(long itemId, Instant start, Instant end) {
+        IntervalList intervals = calendars.get(itemId);
+        return intervals != null && intervals.overlaps(toMicros(start), toMicros(end));
+    }
+
+    public List<TimeInterval> findFreeIntervals(long itemId, Instant from, Instant to) {
+        IntervalList intervals = calendars.get(itemId);
+        if (intervals == null) {
+            return List.of(new TimeInterval(from, to));
+        }
+        return toIntervals(intervals.free(toMicros(from), toMicros(to)));
+    }
+
+    static List<TimeInterval> findFreeIntervals(Iterable<Booking> bookings, Instant from, Instant to) {
+        IntervalList intervals = new IntervalList();
+        bookings.forEach(booking -> intervals.add(toMicros(booking.getStart()), toMicros(booking.getEnd())));
+        return toIntervals(intervals.free(toMicros(from), toMicros(to)));
+    }
+
+    private void add(Interval interval) {
+        // compute, а не computeIfAbsent: иначе prune может выбросить пустой список между созданием и добавлением
+        calendars.compute(interval.itemId(), (key, intervals) -> {
+            IntervalList result = intervals == null ? new IntervalList() : intervals;
+            result.add(interval.start(), interval.end());
+            return result;
+        });
+    }
+
+    private void setRemovedDuringRebuild(Set<Interval> removed) {
+        rebuildLock.lock();
+        try {
+            removedDuringRebuild = removed;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private static List<TimeInterval> toIntervals(long[] bounds) {
+        List<TimeInterval> result = new ArrayList<>(bounds.length / 2);
+        for (int i = 0; i < bounds.length; i += 2) {
+            result.add(new TimeInterval(fromMicros(bounds[i]), fromMicros(bounds[i + 1])));
+        }
+        return result;
+    }
+
+    static long toMicros(Instant instant) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+
+    private static Instant fromMicros(long micros) {
+        return Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+    }
+
+    private record Interval(long itemId, long start, long end) {
+    }
+}
@@ -1,6 +1,11 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -10,9 +15,16 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingApproveAllDto;
+import ru.practicum.shareit.booking.dto.BookingApproveResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.common.PageCursor;
+import ru.practicum.shareit.user.UserService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.util.List;
@@ -20,25 +32,52 @@ import java.util.List;
 @RestController
 @RequestMapping(path = "/bookings")
 public class BookingController {
+    private static final String DEFAULT_PAGE_SIZE = "100";
     private final BookingService bookingService;
+    private final UserService userService;
+    private final ObjectWriter bookingWriter;
 
     @Autowired
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, UserService userService, ObjectMapper objectMapper) {
         this.bookingService = bookingService;
+        this.userService = userService;
+        this.bookingWriter = objectMapper.writerFor(BookingDto.class);
     }
 
     @GetMapping
-    public List<BookingDto> findByBookerIdAndState(
+    public ResponseEntity<List<BookingDto>> findByBookerIdAndState(
             @RequestHeader(name = "X-Sharer-User-Id") long bookerId,
-            @RequestParam(name = "state", defaultValue = "ALL") BookingStateFilter state) {
-        return BookingMapper.toDto(bookingService.findByBookerIdAndState(bookerId, state));
+            @RequestParam(name = "state", defaultValue = "ALL") BookingStateFilter state,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        return toPageResponse(bookingService.findByBookerIdAndState(bookerId, state, PageCursor.decode(cursor), size));
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> findByOwnerIdAndState(
+    public ResponseEntity<List<BookingDto>> findByOwnerIdAndState(
             @RequestHeader(name = "X-Sharer-User-Id") long ownerId,
-            @RequestParam(name = "state", defaultValue = "ALL") BookingStateFilter state) {
-        return BookingMapper.toDto(bookingService.findByOwnerIdAndState(ownerId, state));
+            @RequestParam(name = "state", defaultValue = "ALL") BookingStateFilter state,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        return toPageResponse(bookingService.findByOwnerIdAndState(ownerId, state, PageCursor.decode(cursor), size));
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportByOwnerId(@RequestHeader(name = "X-Sharer-User-Id") long ownerId) {
+        // Проверяем до начала ответа, чтобы успеть вернуть 404
+        userService.checkForExists(ownerId);
+
+        StreamingResponseBody body = out -> bookingService.exportByOwnerId(ownerId, booking -> {
+            try {
+                out.write(bookingWriter.writeValueAsBytes(BookingMapper.toDto(booking)));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @GetMapping("/{id}")
@@ -65,4 +104,23 @@ public class BookingController {
                               @RequestParam(name = "approved") Boolean isApproved) {
         return BookingMapper.toDto(bookingService.approve(bookingId, ownerId, isApproved));
     }
+
+    @PatchMapping("/approve")
+    public List<BookingApproveResultDto> approveAll(@RequestHeader(name = "X-Sharer-User-Id") long ownerId,
+                                                    @RequestBody BookingApproveAllDto approveDto) {
+        return bookingService.approveAll(ownerId, approveDto.getIds(), approveDto.getApproved())
+                .entrySet()
+                .stream()
+                .map(result -> new BookingApproveResultDto(result.getKey(), result.getValue()))
+                .toList();
+    }
+
+    private static ResponseEntity<List<BookingDto>> toPageResponse(Window<Booking> window) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (window.hasNext() && !window.isEmpty()) {
+            Booking last = window.getContent().getLast();
+            response.header(PageCursor.HEADER, new PageCursor(last.getStart(), last.getId()).encode());
+        }
+        return response.body(BookingMapper.toDto(window.getContent()));
+    }
 }
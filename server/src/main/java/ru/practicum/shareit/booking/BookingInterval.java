@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking;
+
+import java.time.Instant;
+
+public interface BookingInterval {
+
+    Long getId();
+
+    Long getItemId();
+
+    Instant getStartDate();
+
+    Instant getEndDate();
+}
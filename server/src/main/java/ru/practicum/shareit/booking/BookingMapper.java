@@ -3,6 +3,7 @@ package ru.practicum.shareit.booking;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.TimeIntervalDto;
 import ru.practicum.shareit.common.BaseDto;
 
 import java.time.LocalDateTime;
@@ -34,4 +35,11 @@ public class BookingMapper {
         bookings.forEach(booking -> dtos.add(toDto(booking)));
         return dtos;
     }
+
+    public static TimeIntervalDto toDto(TimeInterval interval) {
+        TimeIntervalDto dto = new TimeIntervalDto();
+        dto.setStart(LocalDateTime.from(interval.start().atZone(TIMEZONE_ID)));
+        dto.setEnd(LocalDateTime.from(interval.end().atZone(TIMEZONE_ID)));
+        return dto;
+    }
 }
@@ -1,35 +1,127 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    List<Booking> findByBooker_IdOrderByStartDesc(Long bookerId);
-
-    List<Booking> findByBooker_IdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(Long bookerId, Instant start, Instant end);
-
-    List<Booking> findByBooker_IdAndEndIsBeforeOrderByStartDesc(Long bookerId, Instant end);
-
-    List<Booking> findByBooker_IdAndStartIsAfterOrderByStartDesc(Long bookerId, Instant start);
-
-    List<Booking> findByBooker_IdAndStatusEqualsOrderByStartDesc(Long bookerId, BookingState state);
-
-    List<Booking> findByItem_Owner_IdOrderByStartDesc(Long ownerId);
-
-    List<Booking> findByItem_Owner_IdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(Long ownerId, Instant start, Instant end);
-
-    List<Booking> findByItem_Owner_IdAndEndIsBeforeOrderByStartDesc(Long ownerId, Instant end);
-
-    List<Booking> findByItem_Owner_IdAndStartIsAfterOrderByStartDesc(Long ownerId, Instant start);
-
-    List<Booking> findByItem_Owner_IdAndStatusEqualsOrderByStartDesc(Long ownerId, BookingState state);
+    @Override
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findById(Long id);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Window<Booking> findByBooker_IdOrderByStartDescIdDesc(Long bookerId, ScrollPosition position, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Window<Booking> findByBooker_IdAndStartIsBeforeAndEndIsAfterOrderByStartDescIdDesc(Long bookerId, Instant start, Instant end,
+                                                                                      ScrollPosition position, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Window<Booking> findByBooker_IdAndEndIsBeforeOrderByStartDescIdDesc(Long bookerId, Instant end,
+                                                                       ScrollPosition position, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Window<Booking> findByBooker_IdAndStartIsAfterOrderByStartDescIdDesc(Long bookerId, Instant start,
+                                                                        ScrollPosition position, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Window<Booking> findByBooker_IdAndStatusEqualsOrderByStartDescIdDesc(Long bookerId, BookingState state,
+                                                                        ScrollPosition position, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Window<Booking> findByItem_Owner_IdOrderByStartDescIdDesc(Long ownerId, ScrollPosition position, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Window<Booking> findByItem_Owner_IdAndStartIsBeforeAndEndIsAfterOrderByStartDescIdDesc(Long ownerId, Instant start, Instant end,
+                                                                                          ScrollPosition position, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Window<Booking> findByItem_Owner_IdAndEndIsBeforeOrderByStartDescIdDesc(Long ownerId, Instant end,
+                                                                           ScrollPosition position, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Window<Booking> findByItem_Owner_IdAndStartIsAfterOrderByStartDescIdDesc(Long ownerId, Instant start,
+                                                                            ScrollPosition position, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Window<Booking> findByItem_Owner_IdAndStatusEqualsOrderByStartDescIdDesc(Long ownerId, BookingState state,
+                                                                            ScrollPosition position, Limit limit);
 
     List<Booking> findByBooker_IdAndItem_IdAndEndIsBefore(Long bookerId, Long itemId, Instant end);
 
-    Booking findFirstByItem_IdAndStartIsBeforeAndEndIsAfterOrderByEndDesc(Long itemId, Instant start, Instant end);
-
-    Booking findFirstByItem_IdAndStartIsAfterOrderByStartAsc(Long itemId, Instant start);
+    // Курсор для выгрузки: строки читаются порциями по fetch size
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Booking> streamByItem_Owner_IdOrderByStartDescIdDesc(Long ownerId);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("select b from Booking b " +
+            "where b.id = (select l.id from Booking l " +
+            "              where l.item.id = ?1 and l.start < ?2 and l.end > ?2 " +
+            "              order by l.end desc limit 1) " +
+            "or b.id = (select n.id from Booking n " +
+            "           where n.item.id = ?1 and n.start > ?2 " +
+            "           order by n.start asc limit 1)")
+    List<Booking> findLastAndNextForItem(Long itemId, Instant now);
+
+    // Для каждой вещи одна текущая (последняя) и одна ближайшая будущая бронь
+    @Query(value = "select w.id from (" +
+            "  select b.id, row_number() over (" +
+            "      partition by b.item_id, b.start_date > :now " +
+            "      order by case when b.start_date > :now then b.start_date end asc, b.end_date desc) as rn " +
+            "  from bookings b " +
+            "  where b.item_id in (:itemIds) and b.end_date > :now and b.start_date <> :now) w " +
+            "where w.rn = 1", nativeQuery = true)
+    List<Long> findLastAndNextIdsForItems(Collection<Long> itemIds, Instant now);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findByIdIn(Collection<Long> ids);
+
+    @Query("select b.id as id, b.item.id as itemId, b.start as startDate, b.end as endDate " +
+            "from Booking b " +
+            "where b.status = ?1 and b.end > ?2 and b.id > ?3 " +
+            "order by b.id")
+    List<BookingInterval> findIntervalsAfterId(BookingState status, Instant end, long id, Limit limit);
+
+    List<Booking> findByItem_IdAndStatusAndStartIsBeforeAndEndIsAfterOrderByStartAsc(Long itemId, BookingState status,
+                                                                                      Instant end, Instant start);
+
+    List<Booking> findByItem_IdInAndStatusAndStartIsBeforeAndEndIsAfter(Collection<Long> itemIds, BookingState status,
+                                                                       Instant end, Instant start);
+
+    @Modifying
+    @Query("update Booking b set b.status = ?3, b.version = b.version + 1 " +
+            "where b.id in ?1 and b.status = ?4 " +
+            "and b.item.id in (select i.id from Item i where i.owner.id = ?2)")
+    int updateStatus(Collection<Long> ids, long ownerId, BookingState status, BookingState oldStatus);
+
+    // Пересечение полуинтервалов [start, end): start < end2 и end > start2
+    boolean existsByItem_IdAndStatusAndStartIsBeforeAndEndIsAfter(Long itemId, BookingState status, Instant end, Instant start);
 }
@@ -1,21 +1,33 @@
 package ru.practicum.shareit.booking;
 
+import org.springframework.data.domain.Window;
+import ru.practicum.shareit.common.PageCursor;
+
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface BookingService {
 
-    List<Booking> findByBookerIdAndState(long bookerId, BookingStateFilter state);
+    Window<Booking> findByBookerIdAndState(long bookerId, BookingStateFilter state, PageCursor cursor, int size);
 
-    List<Booking> findByOwnerIdAndState(long ownerId, BookingStateFilter state);
+    Window<Booking> findByOwnerIdAndState(long ownerId, BookingStateFilter state, PageCursor cursor, int size);
 
     Booking findByIdAndUserId(long bookingId, long userId);
 
-    Booking findLastForItem(long itemId);
+    void exportByOwnerId(long ownerId, Consumer<Booking> action);
+
+    List<Booking> findLastAndNextForItem(long itemId, Instant now);
 
-    Booking findNextForItem(long itemId);
+    List<Booking> findLastAndNextForItems(Collection<Long> itemIds, Instant now);
+
+    List<TimeInterval> findFreeIntervals(long itemId, Instant from, Instant to);
 
     Booking create(long bookerId, long itemId, Instant start, Instant end);
 
     Booking approve(long bookingId, long ownerId, boolean isApproved);
+
+    Map<Long, BookingApproveResult> approveAll(long ownerId, List<Long> bookingIds, boolean isApproved);
 }
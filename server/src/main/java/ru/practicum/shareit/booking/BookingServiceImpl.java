@@ -1,192 +1,434 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import jakarta.validation.ValidationException;
-import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.common.LoggerMessagePattern;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.common.PageCursor;
+import ru.practicum.shareit.common.exception.DataConflictException;
 import ru.practicum.shareit.common.exception.DataNotAvailableException;
 import ru.practicum.shareit.common.exception.DataNotFoundException;
 import ru.practicum.shareit.common.exception.ForbiddenException;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemCardCache;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.user.User;
-import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
 import ru.practicum.shareit.user.UserRole;
 
+import java.sql.SQLException;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-@Slf4j
 @Service
 public class BookingServiceImpl implements BookingService {
+    private static final int APPROVE_MAX_ATTEMPTS = 5;
+    // Тот же предел, что у шлюза: пачка целиком обрабатывается в одной транзакции
+    static final int APPROVE_ALL_MAX_SIZE = 1000;
+    private static final long APPROVE_BACKOFF_MILLIS = 10;
+    private static final int EXPORT_CLEAR_INTERVAL = 500;
+    private static final String OVERLAP_CONSTRAINT = "bookings_no_overlap";
+
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
-    private final UserRepository userRepository;
+    private final UserService userService;
+    private final BookingCalendar bookingCalendar;
+    private final ItemCardCache itemCardCache;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
-    public BookingServiceImpl(BookingRepository bookingRepository, ItemRepository itemRepository, UserRepository userRepository) {
+    public BookingServiceImpl(BookingRepository bookingRepository, ItemRepository itemRepository, UserService userService,
+                              BookingCalendar bookingCalendar, ItemCardCache itemCardCache, EntityManager entityManager,
+                              PlatformTransactionManager transactionManager) {
         this.bookingRepository = bookingRepository;
         this.itemRepository = itemRepository;
-        this.userRepository = userRepository;
+        this.userService = userService;
+        this.bookingCalendar = bookingCalendar;
+        this.itemCardCache = itemCardCache;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
-    public List<Booking> findByBookerIdAndState(long bookerId, BookingStateFilter filter) {
-        log.debug(LoggerMessagePattern.DEBUG, "findByBookerIdUsingStateFilter", bookerId);
-        try {
-            return findByUserIdUsingStateFilter(bookerId, UserRole.BOOKER, filter);
-        } catch (Exception e) {
-            log.error(LoggerMessagePattern.ERROR, "findByBookerIdUsingStateFilter", bookerId, e.getMessage(), e.getClass());
-            throw e;
-        }
+    public Window<Booking> findByBookerIdAndState(long bookerId, BookingStateFilter filter, PageCursor cursor, int size) {
+        return findByUserIdUsingStateFilter(bookerId, UserRole.BOOKER, filter, cursor, size);
     }
 
     @Override
-    public List<Booking> findByOwnerIdAndState(long ownerId, BookingStateFilter filter) {
-        log.debug(LoggerMessagePattern.DEBUG, "findByOwnerIdUsingStateFilter", ownerId);
-        try {
-            return findByUserIdUsingStateFilter(ownerId, UserRole.OWNER, filter);
-        } catch (Exception e) {
-            log.error(LoggerMessagePattern.ERROR, "findByOwnerIdUsingStateFilter", ownerId, e.getMessage(), e.getClass());
-            throw e;
-        }
+    public Window<Booking> findByOwnerIdAndState(long ownerId, BookingStateFilter filter, PageCursor cursor, int size) {
+        return findByUserIdUsingStateFilter(ownerId, UserRole.OWNER, filter, cursor, size);
     }
 
-    private List<Booking> findByUserIdUsingStateFilter(long userId, UserRole userRole, BookingStateFilter filter) {
-        if (userRepository.findById(userId).isEmpty()) {
-            throw new DataNotFoundException("Пользователь с id: %d не найден".formatted(userId));
+    @Override
+    @Transactional(readOnly = true)
+    public void exportByOwnerId(long ownerId, Consumer<Booking> action) {
+        try (Stream<Booking> bookings = bookingRepository.streamByItem_Owner_IdOrderByStartDescIdDesc(ownerId)) {
+            int count = 0;
+            for (Booking booking : (Iterable<Booking>) bookings::iterator) {
+                action.accept(booking);
+                // Не копим выгруженные сущности в контексте персистентности
+                if (++count % EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
         }
+    }
+
+    private Window<Booking> findByUserIdUsingStateFilter(long userId, UserRole userRole, BookingStateFilter filter,
+                                                         PageCursor cursor, int size) {
+        Limit limit = Limit.of(PageCursor.checkSize(size));
+        userService.checkForExists(userId);
+
+        ScrollPosition position = cursor == null ?
+                ScrollPosition.keyset() :
+                ScrollPosition.forward(Map.of("start", cursor.timestamp(), "id", cursor.id()));
 
         Instant now = Instant.now();
         return switch (filter) {
             case ALL -> userRole == UserRole.BOOKER ?
-                    bookingRepository.findByBooker_IdOrderByStartDesc(userId) :
-                    bookingRepository.findByItem_Owner_IdOrderByStartDesc(userId);
+                    bookingRepository.findByBooker_IdOrderByStartDescIdDesc(userId, position, limit) :
+                    bookingRepository.findByItem_Owner_IdOrderByStartDescIdDesc(userId, position, limit);
             case CURRENT -> userRole == UserRole.BOOKER ?
-                    bookingRepository.findByBooker_IdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(userId, now, now) :
-                    bookingRepository.findByItem_Owner_IdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(userId, now, now);
+                    bookingRepository.findByBooker_IdAndStartIsBeforeAndEndIsAfterOrderByStartDescIdDesc(userId, now, now, position, limit) :
+                    bookingRepository.findByItem_Owner_IdAndStartIsBeforeAndEndIsAfterOrderByStartDescIdDesc(userId, now, now, position, limit);
             case PAST -> userRole == UserRole.BOOKER ?
-                    bookingRepository.findByBooker_IdAndEndIsBeforeOrderByStartDesc(userId, now) :
-                    bookingRepository.findByItem_Owner_IdAndEndIsBeforeOrderByStartDesc(userId, now);
+                    bookingRepository.findByBooker_IdAndEndIsBeforeOrderByStartDescIdDesc(userId, now, position, limit) :
+                    bookingRepository.findByItem_Owner_IdAndEndIsBeforeOrderByStartDescIdDesc(userId, now, position, limit);
             case FUTURE -> userRole == UserRole.BOOKER ?
-                    bookingRepository.findByBooker_IdAndStartIsAfterOrderByStartDesc(userId, now) :
-                    bookingRepository.findByItem_Owner_IdAndStartIsAfterOrderByStartDesc(userId, now);
+                    bookingRepository.findByBooker_IdAndStartIsAfterOrderByStartDescIdDesc(userId, now, position, limit) :
+                    bookingRepository.findByItem_Owner_IdAndStartIsAfterOrderByStartDescIdDesc(userId, now, position, limit);
             case WAITING -> userRole == UserRole.BOOKER ?
-                    bookingRepository.findByBooker_IdAndStatusEqualsOrderByStartDesc(userId, BookingState.WAITING) :
-                    bookingRepository.findByItem_Owner_IdAndStatusEqualsOrderByStartDesc(userId, BookingState.WAITING);
+                    bookingRepository.findByBooker_IdAndStatusEqualsOrderByStartDescIdDesc(userId, BookingState.WAITING, position, limit) :
+                    bookingRepository.findByItem_Owner_IdAndStatusEqualsOrderByStartDescIdDesc(userId, BookingState.WAITING, position, limit);
             case REJECTED -> userRole == UserRole.BOOKER ?
-                    bookingRepository.findByBooker_IdAndStatusEqualsOrderByStartDesc(userId, BookingState.REJECTED) :
-                    bookingRepository.findByItem_Owner_IdAndStatusEqualsOrderByStartDesc(userId, BookingState.REJECTED);
+                    bookingRepository.findByBooker_IdAndStatusEqualsOrderByStartDescIdDesc(userId, BookingState.REJECTED, position, limit) :
+                    bookingRepository.findByItem_Owner_IdAndStatusEqualsOrderByStartDescIdDesc(userId, BookingState.REJECTED, position, limit);
         };
     }
 
     @Override
     public Booking findByIdAndUserId(long bookingId, long userId) {
-        log.debug(LoggerMessagePattern.DEBUG, "findBookingById", bookingId);
-        try {
-            Optional<Booking> bookingOptional = bookingRepository.findById(bookingId);
-            if (bookingOptional.isEmpty()) {
-                throw new DataNotFoundException("Бронь с id: %d не найдена".formatted(bookingId));
-            }
-
-            Booking booking = bookingOptional.get();
-            if (booking.getBooker().getId() != userId && booking.getItem().getOwner().getId() != userId) {
-                throw new ForbiddenException("Пользователь с id: %d не является владельцем или арендатором вещи с id: %d"
-                        .formatted(userId, booking.getItem().getId()));
-            }
+        Optional<Booking> bookingOptional = bookingRepository.findById(bookingId);
+        if (bookingOptional.isEmpty()) {
+            throw new DataNotFoundException("Бронь с id: %d не найдена".formatted(bookingId));
+        }
 
-            return booking;
-        } catch (Exception e) {
-            log.error(LoggerMessagePattern.ERROR, "findBookingById", bookingId, e.getMessage(), e.getClass());
-            throw e;
+        Booking booking = bookingOptional.get();
+        if (booking.getBooker().getId() != userId && booking.getItem().getOwner().getId() != userId) {
+            throw new ForbiddenException("Пользователь с id: %d не является владельцем или арендатором вещи с id: %d"
+                    .formatted(userId, booking.getItem().getId()));
         }
+
+        return booking;
     }
 
     @Override
-    public Booking findLastForItem(long itemId) {
-        log.debug(LoggerMessagePattern.DEBUG, "findLastBookingForItem", itemId);
-        try {
-            Instant now = Instant.now();
-            return bookingRepository.findFirstByItem_IdAndStartIsBeforeAndEndIsAfterOrderByEndDesc(itemId, now, now);
-        } catch (Exception e) {
-            log.error(LoggerMessagePattern.ERROR, "findLastBookingForItem", itemId, e.getMessage(), e.getClass());
-            throw e;
+    public List<Booking> findLastAndNextForItem(long itemId, Instant now) {
+        return bookingRepository.findLastAndNextForItem(itemId, now);
+    }
+
+    @Override
+    public List<Booking> findLastAndNextForItems(Collection<Long> itemIds, Instant now) {
+        if (itemIds.isEmpty()) {
+            return Collections.emptyList();
         }
+        List<Long> ids = bookingRepository.findLastAndNextIdsForItems(itemIds, now);
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return bookingRepository.findByIdIn(ids);
     }
 
     @Override
-    public Booking findNextForItem(long itemId) {
-        log.debug(LoggerMessagePattern.DEBUG, "findNextBookingForItem", itemId);
-        try {
-            return bookingRepository.findFirstByItem_IdAndStartIsAfterOrderByStartAsc(itemId, Instant.now());
-        } catch (Exception e) {
-            log.error(LoggerMessagePattern.ERROR, "findNextBookingForItem", itemId, e.getMessage(), e.getClass());
-            throw e;
+    public List<TimeInterval> findFreeIntervals(long itemId, Instant from, Instant to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Начало периода должно быть раньше его окончания");
         }
+        if (!itemRepository.existsById(itemId)) {
+            throw new DataNotFoundException("Вещь с id: %d не найдена".formatted(itemId));
+        }
+
+        if (bookingCalendar.covers(from)) {
+            return bookingCalendar.findFreeIntervals(itemId, from, to);
+        }
+        List<Booking> approved = bookingRepository.findByItem_IdAndStatusAndStartIsBeforeAndEndIsAfterOrderByStartAsc(
+                itemId, BookingState.APPROVED, to, from);
+        return BookingCalendar.findFreeIntervals(approved, from, to);
     }
 
     @Override
+    @Transactional
     public Booking create(long bookerId, long itemId, Instant start, Instant end) {
-        log.debug(LoggerMessagePattern.DEBUG, "createBooking", bookerId);
-        try {
-            Optional<User> bookerOptional = userRepository.findById(bookerId);
-            if (bookerOptional.isEmpty()) {
-                throw new DataNotFoundException("Пользователь с id: %d не найден".formatted(bookerId));
+        User booker = userService.findById(bookerId);
+
+        Optional<Item> itemOptional = itemRepository.findById(itemId);
+        if (itemOptional.isEmpty()) {
+            throw new DataNotFoundException("Вещь с id: %d не найдена".formatted(itemId));
+        }
+
+        Item item = itemOptional.get();
+        if (!item.getIsAvailable()) {
+            throw new DataNotAvailableException("Вещь недоступна для бронирования");
+        }
+
+        if (end.minusMillis(1).isBefore(start)) {
+            throw new ValidationException("Ошибка в сроке бронирования");
+        }
+        checkForOverlap(itemId, start, end);
+
+        Booking booking = new Booking();
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setBooker(booker);
+        booking.setItem(item);
+        booking.setStatus(BookingState.WAITING);
+        Booking saved = bookingRepository.save(booking);
+        itemRepository.incrementCardVersions(List.of(itemId));
+        itemCardCache.evict(itemId);
+        return saved;
+    }
+
+    @Override
+    public Booking approve(long bookingId, long ownerId, boolean isApproved) {
+        ApproveResult result = executeWithRetries(() -> approveInTransaction(bookingId, ownerId, isApproved));
+        updateCalendar(result);
+        itemCardCache.evict(result.booking().getItem().getId());
+        return result.booking();
+    }
+
+    @Override
+    public Map<Long, BookingApproveResult> approveAll(long ownerId, List<Long> bookingIds, boolean isApproved) {
+        List<Long> ids = checkApproveIds(bookingIds);
+        Map<Long, BookingApproveResult> results = new HashMap<>();
+        List<Booking> changed = new ArrayList<>();
+        executeWithRetries(() -> {
+            results.clear();
+            changed.clear();
+            approveAllInTransaction(ownerId, ids, isApproved, results, changed);
+            return null;
+        });
+        for (Booking booking : changed) {
+            if (isApproved) {
+                bookingCalendar.add(booking.getItem().getId(), booking.getStart(), booking.getEnd());
             }
+            itemCardCache.evict(booking.getItem().getId());
+        }
+
+        Map<Long, BookingApproveResult> orderedResults = new LinkedHashMap<>();
+        ids.forEach(id -> orderedResults.put(id, results.get(id)));
+        return orderedResults;
+    }
 
-            Optional<Item> itemOptional = itemRepository.findById(itemId);
-            if (itemOptional.isEmpty()) {
-                throw new DataNotFoundException("Вещь с id: %d не найдена".formatted(itemId));
+    private static List<Long> checkApproveIds(List<Long> bookingIds) {
+        if (bookingIds == null || bookingIds.isEmpty() || bookingIds.size() > APPROVE_ALL_MAX_SIZE) {
+            throw new ValidationException("Список броней должен содержать от 1 до %d id".formatted(APPROVE_ALL_MAX_SIZE));
+        }
+        Set<Long> unique = new HashSet<>();
+        for (Long id : bookingIds) {
+            if (id == null) {
+                throw new ValidationException("Список броней не должен содержать пустых id");
+            }
+            if (!unique.add(id)) {
+                throw new ValidationException("Бронь с id: %d указана в списке несколько раз".formatted(id));
             }
+        }
+        return bookingIds;
+    }
 
-            Item item = itemOptional.get();
-            if (!item.getIsAvailable()) {
-                throw new DataNotAvailableException("Вещь недоступна для бронирования");
+    private <T> T executeWithRetries(Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt == APPROVE_MAX_ATTEMPTS) {
+                    throw new DataConflictException("Брони изменяются параллельно, повторите попытку");
+                }
+                pauseBeforeRetry(attempt);
+            } catch (DataIntegrityViolationException e) {
+                // Параллельное подтверждение пересекающейся брони отсекает ограничение bookings_no_overlap,
+                // остальные нарушения целостности пробрасываются как есть
+                if (!isOverlapViolation(e)) {
+                    throw e;
+                }
+                throw new DataConflictException("Бронь пересекается с уже подтверждённой бронью");
             }
+        }
+    }
 
-            if (end.minusMillis(1).isBefore(start)) {
-                throw new ValidationException("Ошибка в сроке бронирования");
+    private void approveAllInTransaction(long ownerId, List<Long> bookingIds, boolean isApproved,
+                                         Map<Long, BookingApproveResult> results, List<Booking> changed) {
+        Map<Long, Booking> bookings = bookingRepository.findByIdIn(bookingIds).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        List<Booking> eligible = new ArrayList<>();
+        for (Long bookingId : bookingIds) {
+            Booking booking = bookings.get(bookingId);
+            if (booking == null) {
+                results.put(bookingId, BookingApproveResult.NOT_FOUND);
+            } else if (booking.getItem().getOwner().getId() != ownerId) {
+                results.put(bookingId, BookingApproveResult.FORBIDDEN);
+            } else if (booking.getStatus() != BookingState.WAITING) {
+                results.put(bookingId, BookingApproveResult.NOT_WAITING);
+            } else {
+                eligible.add(booking);
             }
-            Booking booking = new Booking();
-            booking.setStart(start);
-            booking.setEnd(end);
-            booking.setBooker(bookerOptional.get());
-            booking.setItem(item);
-            booking.setStatus(BookingState.WAITING);
-            return bookingRepository.save(booking);
-        } catch (Exception e) {
-            log.error(LoggerMessagePattern.ERROR, "createBooking", bookerId, e.getMessage(), e.getClass());
-            throw e;
+        }
+        if (eligible.isEmpty()) {
+            return;
+        }
+
+        if (isApproved) {
+            eligible = selectNonOverlapping(eligible, results);
+        }
+
+        BookingState status = isApproved ? BookingState.APPROVED : BookingState.REJECTED;
+        List<Long> ids = eligible.stream().map(Booking::getId).toList();
+        if (!ids.isEmpty() && bookingRepository.updateStatus(ids, ownerId, status, BookingState.WAITING) != ids.size()) {
+            throw new OptimisticLockingFailureException("Часть броней изменилась во время подтверждения");
+        }
+
+        BookingApproveResult result = isApproved ? BookingApproveResult.APPROVED : BookingApproveResult.REJECTED;
+        ids.forEach(id -> results.put(id, result));
+        changed.addAll(eligible);
+        if (!eligible.isEmpty()) {
+            itemRepository.incrementCardVersions(eligible.stream()
+                    .map(booking -> booking.getItem().getId())
+                    .collect(Collectors.toSet()));
         }
     }
 
-    @Override
-    public Booking approve(long bookingId, long ownerId, boolean isApproved) {
-        log.debug(LoggerMessagePattern.DEBUG, "approveBooking", bookingId);
-        try {
-            Optional<Booking> bookingOptional = bookingRepository.findById(bookingId);
-            if (bookingOptional.isEmpty()) {
-                throw new DataNotFoundException("Бронь с id: %d не найдена".formatted(bookingId));
+    // Из ожидающих броней подтверждаются те, что не пересекаются с уже подтверждёнными и между собой
+    private List<Booking> selectNonOverlapping(List<Booking> eligible, Map<Long, BookingApproveResult> results) {
+        Map<Long, Item> items = new HashMap<>();
+        Instant from = eligible.getFirst().getStart();
+        Instant to = eligible.getFirst().getEnd();
+        for (Booking booking : eligible) {
+            items.putIfAbsent(booking.getItem().getId(), booking.getItem());
+            from = booking.getStart().isBefore(from) ? booking.getStart() : from;
+            to = booking.getEnd().isAfter(to) ? booking.getEnd() : to;
+        }
+        items.values().forEach(item -> entityManager.lock(item, LockModeType.OPTIMISTIC_FORCE_INCREMENT));
+
+        Map<Long, IntervalList> busy = new HashMap<>();
+        for (Booking booking : bookingRepository.findByItem_IdInAndStatusAndStartIsBeforeAndEndIsAfter(
+                items.keySet(), BookingState.APPROVED, to, from)) {
+            busy.computeIfAbsent(booking.getItem().getId(), key -> new IntervalList())
+                    .add(BookingCalendar.toMicros(booking.getStart()), BookingCalendar.toMicros(booking.getEnd()));
+        }
+
+        List<Booking> selected = new ArrayList<>();
+        for (Booking booking : eligible.stream().sorted(Comparator.comparing(Booking::getStart)).toList()) {
+            IntervalList intervals = busy.computeIfAbsent(booking.getItem().getId(), key -> new IntervalList());
+            long start = BookingCalendar.toMicros(booking.getStart());
+            long end = BookingCalendar.toMicros(booking.getEnd());
+            if (intervals.overlaps(start, end)) {
+                results.put(booking.getId(), BookingApproveResult.CONFLICT);
+            } else {
+                intervals.add(start, end);
+                selected.add(booking);
             }
+        }
+        return selected;
+    }
+
+    private ApproveResult approveInTransaction(long bookingId, long ownerId, boolean isApproved) {
+        Booking booking = bookingRepository.findById(bookingId).orElseThrow(() ->
+                new DataNotFoundException("Бронь с id: %d не найдена".formatted(bookingId)));
+
+        Item item = booking.getItem();
+        if (item.getOwner().getId() != ownerId) {
+            throw new ForbiddenException("Пользователь с id: %d не является влалельцем вещи с id: %d"
+                    .formatted(bookingId, item.getId()));
+        }
 
-            Booking booking = bookingOptional.get();
-            if (booking.getItem().getOwner().getId() != ownerId) {
-                throw new ForbiddenException("Пользователь с id: %d не является влалельцем вещи с id: %d"
-                        .formatted(bookingId, booking.getItem().getId()));
+        BookingState oldStatus = booking.getStatus();
+        if (isApproved) {
+            if (oldStatus != BookingState.APPROVED) {
+                // Версия вещи растёт при каждом подтверждении, поэтому из двух параллельных
+                // подтверждений броней одной вещи зафиксируется только одно, второе будет повторено
+                entityManager.lock(item, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+                if (bookingRepository.existsByItem_IdAndStatusAndStartIsBeforeAndEndIsAfter(
+                        item.getId(), BookingState.APPROVED, booking.getEnd(), booking.getStart())) {
+                    throw new DataConflictException("Вещь с id: %d уже забронирована на этот срок".formatted(item.getId()));
+                }
             }
+            booking.setStatus(BookingState.APPROVED);
+        } else {
+            booking.setStatus(BookingState.REJECTED);
+        }
+        itemRepository.incrementCardVersions(List.of(item.getId()));
+        return new ApproveResult(booking, oldStatus);
+    }
 
-            if (isApproved) {
-                booking.setStatus(BookingState.APPROVED);
-            } else {
-                booking.setStatus(BookingState.REJECTED);
+    private void updateCalendar(ApproveResult result) {
+        Booking booking = result.booking();
+        if (booking.getStatus() == BookingState.APPROVED) {
+            bookingCalendar.add(booking.getItem().getId(), booking.getStart(), booking.getEnd());
+        } else if (result.oldStatus() == BookingState.APPROVED) {
+            bookingCalendar.remove(booking.getItem().getId(), booking.getStart(), booking.getEnd());
+        }
+    }
+
+    static boolean isOverlapViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && OVERLAP_CONSTRAINT.equalsIgnoreCase(violation.getConstraintName())) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException && sqlException.getMessage() != null
+                    && sqlException.getMessage().contains(OVERLAP_CONSTRAINT)) {
+                return true;
             }
+        }
+        return false;
+    }
 
-            return bookingRepository.save(booking);
-        } catch (Exception e) {
-            log.error(LoggerMessagePattern.ERROR, "approveBooking", bookingId, e.getMessage(), e.getClass());
-            throw e;
+    private static void pauseBeforeRetry(int attempt) {
+        long backoff = APPROVE_BACKOFF_MILLIS << (attempt - 1);
+        try {
+            Thread.sleep(backoff + ThreadLocalRandom.current().nextLong(backoff));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataConflictException("Подтверждение брони прервано");
         }
     }
+
+    private void checkForOverlap(long itemId, Instant start, Instant end) {
+        boolean hasOverlap = bookingCalendar.covers(start) ?
+                bookingCalendar.hasOverlap(itemId, start, end) :
+                bookingRepository.existsByItem_IdAndStatusAndStartIsBeforeAndEndIsAfter(itemId, BookingState.APPROVED, end, start);
+        if (hasOverlap) {
+            throw new DataConflictException("Вещь с id: %d уже забронирована на этот срок".formatted(itemId));
+        }
+    }
+
+    private record ApproveResult(Booking booking, BookingState oldStatus) {
+    }
 }
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.booking;
+
+import java.util.Arrays;
+
+// Непересекающиеся полуинтервалы [start, end), упорядоченные по началу.
+// Раз интервалы не пересекаются, концы упорядочены так же, как начала
+class IntervalList {
+    private long[] starts = new long[4];
+    private long[] ends = new long[4];
+    private int size;
+
+    synchronized void add(long start, long end) {
+        int position = firstNotLess(starts, start);
+        if (position < size && starts[position] == start && ends[position] == end) {
+            return;
+        }
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+        System.arraycopy(starts, position, starts, position + 1, size - position);
+        System.arraycopy(ends, position, ends, position + 1, size - position);
+        starts[position] = start;
+        ends[position] = end;
+        size++;
+    }
+
+    synchronized void remove(long start, long end) {
+        int position = firstNotLess(starts, start);
+        if (position == size || starts[position] != start || ends[position] != end) {
+            return;
+        }
+        System.arraycopy(starts, position + 1, starts, position, size - position - 1);
+        System.arraycopy(ends, position + 1, ends, position, size - position - 1);
+        size--;
+    }
+
+    // Убирает интервалы, закончившиеся не позже moment. Возвращает true, если список опустел
+    synchronized boolean pruneEndedBefore(long moment) {
+        int ended = firstNotLess(ends, moment + 1);
+        if (ended > 0) {
+            System.arraycopy(starts, ended, starts, 0, size - ended);
+            System.arraycopy(ends, ended, ends, 0, size - ended);
+            size -= ended;
+        }
+        return size == 0;
+    }
+
+    synchronized boolean overlaps(long start, long end) {
+        // С [start, end) может пересечься только последний интервал, начавшийся раньше end
+        int position = firstNotLess(starts, end);
+        return position > 0 && ends[position - 1] > start;
+    }
+
+    // Свободные промежутки внутри [from, to) парами: начало, конец
+    synchronized long[] free(long from, long to) {
+        long[] result = new long[4];
+        int count = 0;
+        long cursor = from;
+        for (int i = firstNotLess(ends, from + 1); i < size && starts[i] < to; i++) {
+            if (starts[i] > cursor) {
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, count * 2);
+                }
+                result[count++] = cursor;
+                result[count++] = starts[i];
+            }
+            cursor = Math.max(cursor, ends[i]);
+        }
+        if (cursor < to) {
+            if (count == result.length) {
+                result = Arrays.copyOf(result, count * 2);
+            }
+            result[count++] = cursor;
+            result[count++] = to;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private int firstNotLess(long[] values, long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
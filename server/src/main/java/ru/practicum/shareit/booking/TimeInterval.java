@@ -0,0 +1,6 @@
+package ru.practicum.shareit.booking;
+
+import java.time.Instant;
+
+public record TimeInterval(Instant start, Instant end) {
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BookingApproveAllDto {
+    private List<Long> ids;
+    private Boolean approved;
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.BookingApproveResult;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingApproveResultDto {
+    private Long id;
+    private BookingApproveResult result;
+}
@@ -18,6 +18,10 @@ public class BaseDto {
         this.name = name;
     }
 
+    public static BaseDto of(long id, String name) {
+        return new BaseDto(id, name);
+    }
+
     public static BaseDto from(Object o) {
         if (o == null) return null;
         try {
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.common;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.http.CacheControl;
+
+import java.util.StringJoiner;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class ETags {
+    // Клиент хранит ответ, но перед использованием переспрашивает сервер по ETag
+    public static final CacheControl CACHE_CONTROL = CacheControl.noCache();
+
+    // Сильный ETag из id и версий сущностей: проверяется без сборки и сериализации ответа
+    public static String of(String kind, Object... parts) {
+        StringJoiner joiner = new StringJoiner("-", "\"", "\"");
+        joiner.add(kind);
+        for (Object part : parts) {
+            joiner.add(String.valueOf(part));
+        }
+        return joiner.toString();
+    }
+}
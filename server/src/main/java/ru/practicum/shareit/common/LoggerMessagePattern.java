@@ -1,8 +1,8 @@
 package ru.practicum.shareit.common;
 
 public class LoggerMessagePattern {
-    public static final String DEBUG = "Action: {}, data: {}";
-    public static final String ERROR = "Action: {}, data: {}, message: {}, exception: {}";
+    public static final String DEBUG = "Action: {}, arguments: {}";
+    public static final String ERROR = "Action: {}, arguments: {}, message: {}, exception: {}";
 
     private LoggerMessagePattern() {
     }
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.common;
+
+import jakarta.validation.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+public record PageCursor(Instant timestamp, long id) {
+    public static final String HEADER = "X-Next-Cursor";
+    public static final int MAX_SIZE = 500;
+    private static final String SEPARATOR = "_";
+
+    public String encode() {
+        String value = timestamp + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Без верхней границы одна страница превращается в полную выгрузку
+    public static int checkSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new ValidationException("Размер страницы должен быть от 1 до %d".formatted(MAX_SIZE));
+        }
+        return size;
+    }
+
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+            return new PageCursor(
+                    Instant.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ValidationException("Некорректный курсор страницы: %s".formatted(token));
+        }
+    }
+}
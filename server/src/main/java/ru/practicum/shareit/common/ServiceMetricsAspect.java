@@ -0,0 +1,72 @@
+package ru.practicum.shareit.common;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Время выполнения и ошибки всех публичных методов сервисов вместо try/catch в каждом методе
+@Slf4j
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+    static final String CALLS_METRIC = "shareit.service.calls";
+    static final String ERRORS_METRIC = "shareit.service.errors";
+    private static final String NO_EXCEPTION = "none";
+
+    private final MeterRegistry registry;
+    // Поиск метра в реестре на каждом вызове дороже самого вызова: метры создаются один раз на ключ
+    private final Map<MeterKey, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<MeterKey, Counter> counters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ServiceMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("@within(org.springframework.stereotype.Service) && execution(public * *(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String service = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        // Аргументы не пишутся в журнал: в них бывают персональные данные и большие коллекции
+        int arguments = joinPoint.getArgs().length;
+        log.debug(LoggerMessagePattern.DEBUG, service + "." + method, arguments);
+
+        String exception = NO_EXCEPTION;
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            counters.computeIfAbsent(new MeterKey(service, method, exception), this::registerCounter).increment();
+            log.error(LoggerMessagePattern.ERROR, service + "." + method, arguments, e.getMessage(), e.getClass());
+            throw e;
+        } finally {
+            sample.stop(timers.computeIfAbsent(new MeterKey(service, method, exception), this::registerTimer));
+        }
+    }
+
+    private Timer registerTimer(MeterKey key) {
+        return Timer.builder(CALLS_METRIC)
+                .tags("service", key.service(), "method", key.method(), "exception", key.exception())
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private Counter registerCounter(MeterKey key) {
+        return Counter.builder(ERRORS_METRIC)
+                .tags("service", key.service(), "method", key.method(), "exception", key.exception())
+                .register(registry);
+    }
+
+    private record MeterKey(String service, String method, String exception) {
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.common.exception;
+
+public class DataConflictException extends RuntimeException {
+
+    public DataConflictException(String message) {
+        super(message);
+    }
+}
@@ -2,13 +2,17 @@ package ru.practicum.shareit.common.exception.handler;
 
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.ValidationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.BindException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingRequestHeaderException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import ru.practicum.shareit.common.exception.DataConflictException;
 import ru.practicum.shareit.common.exception.DataNotAvailableException;
 import ru.practicum.shareit.common.exception.DataNotFoundException;
 import ru.practicum.shareit.common.exception.DuplicatedDataException;
@@ -22,6 +26,8 @@ public class ErrorHandler {
             ValidationException.class,
             MethodArgumentNotValidException.class,
             MissingRequestHeaderException.class,
+            MissingServletRequestParameterException.class,
+            MethodArgumentTypeMismatchException.class,
             DataNotAvailableException.class})
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleValidation(Exception e) {
@@ -34,12 +40,19 @@ public class ErrorHandler {
         return new ErrorResponse(e.getMessage());
     }
 
-    @ExceptionHandler({DuplicatedDataException.class})
+    @ExceptionHandler({DuplicatedDataException.class, DataConflictException.class})
     @ResponseStatus(HttpStatus.CONFLICT)
     public ErrorResponse handleDuplicatedData(Exception e) {
         return new ErrorResponse(e.getMessage());
     }
 
+    // Версия строки изменилась между чтением и записью: клиенту достаточно повторить запрос
+    @ExceptionHandler({OptimisticLockingFailureException.class})
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleOptimisticLocking() {
+        return new ErrorResponse("Данные изменены параллельным запросом, повторите попытку");
+    }
+
     @ExceptionHandler({ForbiddenException.class})
     @ResponseStatus(HttpStatus.FORBIDDEN)
     public ErrorResponse handleForbidden(Exception e) {
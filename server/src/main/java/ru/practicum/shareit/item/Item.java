@@ -2,12 +2,15 @@ package ru.practicum.shareit.item;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.Setter;
 import ru.practicum.shareit.request.Request;
@@ -21,18 +24,25 @@ import java.util.Objects;
 @Table(name = "items")
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Пул идентификаторов из последовательности, иначе IDENTITY отключает пакетную вставку
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     private Long id;
     private String name;
     private String description;
     @Column(name = "is_available")
     private Boolean isAvailable;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id")
     private User owner;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "request_id")
     private Request request;
+    @Version
+    private Long version;
+    // Меняется только запросами ItemRepository.incrementCardVersion*, сущность его не перезаписывает
+    @Column(name = "card_version", insertable = false, updatable = false)
+    private Long cardVersion;
 
     @Override
     public boolean equals(Object o) {
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.item;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+@Component
+public class ItemCardCache {
+    // Версии сбрасываются при изменениях через сервер, остальное догоняет короткий TTL.
+    // Версия, зависящая от времени, не переживает ближайшую границу бронирований
+    private final AsyncCache<Long, ItemCardVersion> versions;
+    // Карточка кэшируется под версией, из которой она собрана, поэтому сбрасывать её не нужно
+    private final AsyncCache<ItemCardVersion, ItemDto> cards;
+
+    public ItemCardCache(@Value("${shareit.item-card-cache.spec}") String spec,
+                         @Value("${shareit.item-card-cache.ttl}") Duration ttl) {
+        this.versions = Caffeine.from(spec).expireAfter(new VersionExpiry(ttl)).buildAsync();
+        this.cards = Caffeine.from(spec).expireAfterWrite(ttl).buildAsync();
+    }
+
+    public ItemCardVersion getVersion(long itemId, Function<Long, ItemCardVersion> loader) {
+        return get(versions, itemId, loader);
+    }
+
+    public ItemDto getCard(ItemCardVersion version, Function<ItemCardVersion, ItemDto> loader) {
+        return get(cards, version, loader);
+    }
+
+    // Внутри транзакции версия сбрасывается ещё раз после фиксации: иначе параллельный запрос
+    // может успеть закэшировать версию, прочитанную до коммита
+    public void evict(long itemId) {
+        versions.synchronous().invalidate(itemId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versions.synchronous().invalidate(itemId);
+                }
+            });
+        }
+    }
+
+    // Значение считает первый запрос в своём потоке и транзакции, параллельные запросы ждут его future.
+    // Загрузка идёт вне блокировок Caffeine, поэтому ожидание не закрепляет виртуальные потоки
+    private static <K, V> V get(AsyncCache<K, V> cache, K key, Function<K, V> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> created);
+        if (future == created) {
+            try {
+                created.complete(loader.apply(key));
+            } catch (RuntimeException e) {
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record VersionExpiry(Duration ttl) implements Expiry<Long, ItemCardVersion> {
+
+        @Override
+        public long expireAfterCreate(Long itemId, ItemCardVersion version, long currentTime) {
+            if (version.nextBoundary() == null) {
+                return ttl.toNanos();
+            }
+            Duration untilBoundary = Duration.between(Instant.now(), version.nextBoundary());
+            return untilBoundary.compareTo(ttl) < 0 ? Math.max(0, untilBoundary.toNanos()) : ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Long itemId, ItemCardVersion version, long currentTime, long currentDuration) {
+            return expireAfterCreate(itemId, version, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long itemId, ItemCardVersion version, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
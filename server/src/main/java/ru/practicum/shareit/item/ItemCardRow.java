@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.item.comment.Comment;
+
+// Строка карточки вещи: вещь и брони повторяются, комментарий в каждой строке свой
+public record ItemCardRow(
+        Item item,
+        Comment comment,
+        Booking lastBooking,
+        Booking nextBooking
+) {
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item;
+
+import java.time.Instant;
+
+// Из этих значений строится ETag карточки вещи, по ним же кэшируется сама карточка.
+// cardVersion растёт при изменениях комментариев, бронирований и имён в карточке, а nextBoundary —
+// ближайшее начало или окончание брони, после которого меняются последнее и следующее бронирования
+public record ItemCardVersion(
+        Long itemId,
+        Long itemVersion,
+        Long cardVersion,
+        Instant nextBoundary
+) {
+
+    public ItemCardVersion(Long itemId, Long itemVersion, Long cardVersion, Instant nextStart, Instant nextEnd) {
+        this(itemId, itemVersion, cardVersion, nextStart == null || (nextEnd != null && nextEnd.isBefore(nextStart)) ?
+                nextEnd : nextStart);
+    }
+}
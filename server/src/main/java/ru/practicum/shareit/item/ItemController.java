@@ -1,6 +1,8 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -10,6 +12,11 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.TimeIntervalDto;
+import ru.practicum.shareit.common.ETags;
 import ru.practicum.shareit.item.comment.Comment;
 import ru.practicum.shareit.item.comment.CommentDto;
 import ru.practicum.shareit.item.comment.CommentMapper;
@@ -17,6 +24,9 @@ import ru.practicum.shareit.item.comment.CommentService;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,11 +35,13 @@ import java.util.Optional;
 public class ItemController {
     private final ItemService itemService;
     private final CommentService commentService;
+    private final BookingService bookingService;
 
     @Autowired
-    public ItemController(ItemService itemService, CommentService commentService) {
+    public ItemController(ItemService itemService, CommentService commentService, BookingService bookingService) {
         this.itemService = itemService;
         this.commentService = commentService;
+        this.bookingService = bookingService;
     }
 
     @GetMapping
@@ -38,8 +50,34 @@ public class ItemController {
     }
 
     @GetMapping("/{id}")
-    public ItemDto findByIdWithCommentsAndBookings(@PathVariable(name = "id") long itemId) {
-        return itemService.findByIdWithCommentsAndBookings(itemId);
+    public ResponseEntity<ItemDto> findByIdWithCommentsAndBookings(@PathVariable(name = "id") long itemId,
+                                                                   WebRequest request) {
+        ItemCardVersion version = itemService.findCardVersion(itemId);
+        String eTag = ETags.of("item", itemId, version.itemVersion(), version.cardVersion(),
+                version.nextBoundary() != null ? version.nextBoundary().toEpochMilli() : 0);
+        // Карточка не изменилась: комментарии и бронирования не загружаем
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(ETags.CACHE_CONTROL)
+                .body(itemService.findCard(version));
+    }
+
+    @GetMapping("/{id}/availability")
+    public List<TimeIntervalDto> findFreeIntervals(
+            @PathVariable(name = "id") long itemId,
+            @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return bookingService.findFreeIntervals(
+                        itemId,
+                        Instant.from(from.atZone(ZoneId.systemDefault())),
+                        Instant.from(to.atZone(ZoneId.systemDefault()))
+                )
+                .stream()
+                .map(BookingMapper::toDto)
+                .toList();
     }
 
     @GetMapping("/search")
@@ -67,6 +105,12 @@ public class ItemController {
         return ItemMapper.toDto(itemService.create(ownerId, item, requestId));
     }
 
+    @PostMapping("/batch")
+    public List<ItemDto> createAll(@RequestHeader(name = "X-Sharer-User-Id") long ownerId,
+                                   @RequestBody List<ItemCreateDto> itemDtos) {
+        return ItemMapper.toDto(itemService.createAll(ownerId, itemDtos));
+    }
+
     @PatchMapping("/{id}")
     public ItemDto update(@PathVariable long id,
                           @RequestHeader(name = "X-Sharer-User-Id") long ownerId,
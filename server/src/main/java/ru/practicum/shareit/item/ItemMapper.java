@@ -43,6 +43,22 @@ public class ItemMapper {
         return dto;
     }
 
+    public static ItemWithCommentsAndBookingsDto toDto(ItemView item,
+                                                       List<CommentDto> comments,
+                                                       BookingDto lastBooking,
+                                                       BookingDto nextBooking) {
+        ItemWithCommentsAndBookingsDto dto = new ItemWithCommentsAndBookingsDto();
+        dto.setId(item.getId());
+        dto.setName(item.getName());
+        dto.setDescription(item.getDescription());
+        dto.setAvailable(item.getAvailable());
+        dto.setOwner(BaseDto.of(item.getOwnerId(), item.getOwnerName()));
+        dto.setComments(comments);
+        dto.setLastBooking(lastBooking);
+        dto.setNextBooking(nextBooking);
+        return dto;
+    }
+
     public static ItemDto toDto(Item item) {
         ItemDto dto = new ItemDto();
         dto.setId(item.getId());
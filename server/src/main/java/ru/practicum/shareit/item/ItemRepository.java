@@ -1,19 +1,102 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.item.comment.Comment;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
+    @Override
+    @EntityGraph(attributePaths = "owner")
+    Optional<Item> findById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = "owner")
+    List<Item> findAllById(Iterable<Long> ids);
+
+    @EntityGraph(attributePaths = "owner")
     @Query("select i from Item i " +
             "where i.isAvailable = true and " +
             "(upper(i.name) like upper(concat('%', ?1, '%')) " +
             "or upper(i.description) like upper(concat('%', ?1, '%')))")
     List<Item> findByText(String text);
 
+    @Query(value = "select i.* from items i, to_tsquery('simple', ?1) q " +
+            "where i.is_available = true and i.search_vector @@ q " +
+            "order by ts_rank(i.search_vector, q) desc, i.id",
+            nativeQuery = true)
+    List<Item> findByTextRanked(String tsQuery);
+
+    @Query("select i.id as id, i.name as name, i.description as description from Item i " +
+            "where i.isAvailable = true and i.id > ?1 " +
+            "order by i.id")
+    List<ItemText> findAvailableTextsAfterId(long id, Limit limit);
+
+    @EntityGraph(attributePaths = "owner")
     List<Item> findByOwner_Id(long ownerId);
 
+    @Query("select i.id as id, i.name as name, i.description as description, i.isAvailable as available, " +
+            "o.id as ownerId, o.name as ownerName " +
+            "from Item i join i.owner o " +
+            "where o.id = ?1 " +
+            "order by i.id")
+    List<ItemView> findViewsByOwnerId(long ownerId);
+
+    @EntityGraph(attributePaths = "owner")
     List<Item> findByRequest_Id(long requestId);
+
+    @EntityGraph(attributePaths = "owner")
+    List<Item> findByRequest_IdIn(Collection<Long> requestIds);
+
+    // Карточка вещи одним запросом: владелец, комментарии с авторами, текущая и ближайшая брони с арендаторами.
+    // Связанные сущности выбираются вместе с вещью, поэтому попадают в контекст без отдельных запросов
+    @Query("select i, o, c, a, lb, lbu, nb, nbu " +
+            "from Item i join i.owner o " +
+            "left join Comment c on c.item.id = i.id left join c.author a " +
+            "left join Booking lb on lb.id = (select l.id from Booking l " +
+            "                                 where l.item.id = i.id and l.start < ?2 and l.end > ?2 " +
+            "                                 order by l.end desc limit 1) " +
+            "left join lb.booker lbu " +
+            "left join Booking nb on nb.id = (select n.id from Booking n " +
+            "                                 where n.item.id = i.id and n.start > ?2 " +
+            "                                 order by n.start asc limit 1) " +
+            "left join nb.booker nbu " +
+            "where i.id = ?1 " +
+            "order by c.id")
+    List<Object[]> findCardTuples(long itemId, Instant now);
+
+    default List<ItemCardRow> findCardRows(long itemId, Instant now) {
+        return findCardTuples(itemId, now).stream()
+                .map(row -> new ItemCardRow((Item) row[0], (Comment) row[2], (Booking) row[4], (Booking) row[6]))
+                .toList();
+    }
+
+    // Версия карточки вещи одним запросом по первичному ключу и двум поискам по индексам бронирований
+    @Query("select new ru.practicum.shareit.item.ItemCardVersion(i.id, i.version, i.cardVersion, " +
+            "(select min(b.start) from Booking b where b.item.id = i.id and b.start > ?2), " +
+            "(select min(b.end) from Booking b where b.item.id = i.id and b.end > ?2)) " +
+            "from Item i " +
+            "where i.id = ?1")
+    Optional<ItemCardVersion> findCardVersion(long itemId, Instant now);
+
+    @Modifying
+    @Query("update Item i set i.cardVersion = i.cardVersion + 1 where i.id in ?1")
+    void incrementCardVersions(Collection<Long> itemIds);
+
+    // Имя пользователя видно в карточках его вещей, вещей с его комментариями и его бронированиями
+    @Modifying
+    @Query("update Item i set i.cardVersion = i.cardVersion + 1 " +
+            "where i.owner.id = ?1 " +
+            "or i.id in (select c.item.id from Comment c where c.author.id = ?1) " +
+            "or i.id in (select b.item.id from Booking b where b.booker.id = ?1)")
+    void incrementCardVersionsByUserId(long userId);
 }
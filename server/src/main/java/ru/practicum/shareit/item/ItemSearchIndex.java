@@ -0,0 +1,215 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Слова запроса ищутся как префиксы и объединяются по И, как в режиме FULLTEXT
+@Slf4j
+@Component
+public class ItemSearchIndex {
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+    private final boolean enabled;
+    private final NavigableMap<String, LongPostingList> postings = new TreeMap<>();
+    private final Map<Long, String[]> itemTerms = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Вещи, изменённые во время перестроения: прочитанный перестроением текст для них мог устареть
+    private Set<Long> updatedDuringRebuild;
+    private volatile boolean ready;
+
+    @Autowired
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           @Value("${shareit.search.mode:LIKE}") ItemSearchMode searchMode) {
+        this.itemRepository = itemRepository;
+        this.enabled = searchMode == ItemSearchMode.INDEX;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            updatedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long lastId = 0;
+        int indexed = 0;
+        List<ItemText> batch;
+        try {
+            do {
+                batch = itemRepository.findAvailableTextsAfterId(lastId, Limit.of(REBUILD_BATCH_SIZE));
+                for (ItemText item : batch) {
+                    String[] terms = toTerms(item.getName(), item.getDescription());
+                    lock.writeLock().lock();
+                    try {
+                        if (!updatedDuringRebuild.contains(item.getId())) {
+                            replace(item.getId(), terms);
+                        }
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                    lastId = item.getId();
+                }
+                indexed += batch.size();
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                updatedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        ready = true;
+        log.info("Item search index built: {} items, {} terms", indexed, postings.size());
+    }
+
+    public void index(Item item) {
+        if (enabled) {
+            put(item.getId(), item.getName(), item.getDescription(), Boolean.TRUE.equals(item.getIsAvailable()));
+        }
+    }
+
+    public long[] search(String query) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return new long[0];
+        }
+
+        lock.readLock().lock();
+        try {
+            long[] result = null;
+            for (String term : terms) {
+                long[] matches = findByPrefix(term);
+                result = result == null ? matches : intersect(result, matches);
+                if (result.length == 0) {
+                    break;
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void put(long itemId, String name, String description, boolean isAvailable) {
+        String[] terms = isAvailable ? toTerms(name, description) : null;
+
+        lock.writeLock().lock();
+        try {
+            replace(itemId, terms);
+            if (updatedDuringRebuild != null) {
+                updatedDuringRebuild.add(itemId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static String[] toTerms(String name, String description) {
+        return tokenize(name + " " + description).stream().distinct().toArray(String[]::new);
+    }
+
+    // Вызывается под блокировкой на запись
+    private void replace(long itemId, String[] terms) {
+        String[] oldTerms = itemTerms.remove(itemId);
+        if (oldTerms != null) {
+            for (String term : oldTerms) {
+                LongPostingList ids = postings.get(term);
+                ids.remove(itemId);
+                if (ids.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+
+        if (terms != null) {
+            for (String term : terms) {
+                postings.computeIfAbsent(term, key -> new LongPostingList()).add(itemId);
+            }
+            itemTerms.put(itemId, terms);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String term : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    private long[] findByPrefix(String prefix) {
+        Collection<LongPostingList> lists = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values();
+        if (lists.isEmpty()) {
+            return new long[0];
+        }
+
+        int total = 0;
+        for (LongPostingList ids : lists) {
+            total += ids.size();
+        }
+        long[] merged = new long[total];
+        int offset = 0;
+        for (LongPostingList ids : lists) {
+            ids.copyTo(merged, offset);
+            offset += ids.size();
+        }
+
+        if (lists.size() == 1) {
+            return merged;
+        }
+        Arrays.sort(merged);
+        return Arrays.stream(merged).distinct().toArray();
+    }
+
+    private static long[] intersect(long[] left, long[] right) {
+        long[] result = new long[Math.min(left.length, right.length)];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[size++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+}
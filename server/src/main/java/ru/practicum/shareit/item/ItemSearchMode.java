@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item;
+
+public enum ItemSearchMode {
+    // Подстрока в названии или описании, работает на любой БД
+    LIKE,
+    // Полнотекстовый поиск PostgreSQL по items.search_vector с ранжированием
+    FULLTEXT,
+    // Инвертированный индекс в памяти сервера, в БД идут только выборки по id
+    INDEX
+}
@@ -1,7 +1,9 @@
 package ru.practicum.shareit.item;
 
+import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,17 +11,25 @@ public interface ItemService {
 
     Item findById(long id);
 
+    ItemCardVersion findCardVersion(long itemId);
+
     Item create(long ownerId, Item item, Optional<Long> requestId);
 
+    List<Item> createAll(long ownerId, List<ItemCreateDto> itemDtos);
+
     Item update(long ownerId, Item item);
 
-    List<Item> findByOwnerId(long ownerId);
+    List<ItemView> findByOwnerId(long ownerId);
 
     List<Item> findByRequestId(long requestId);
 
+    List<Item> findByRequestIds(Collection<Long> requestIds);
+
     List<Item> findByText(String query);
 
     List<ItemDto> findByOwnerIdWithComments(long ownerId);
 
     ItemDto findByIdWithCommentsAndBookings(long itemId);
+
+    ItemDto findCard(ItemCardVersion version);
 }
@@ -1,180 +1,304 @@
 package ru.practicum.shareit.item;
 
-import lombok.extern.slf4j.Slf4j;
+import jakarta.validation.ValidationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingService;
 import ru.practicum.shareit.booking.dto.BookingDto;
-import ru.practicum.shareit.common.LoggerMessagePattern;
 import ru.practicum.shareit.common.exception.DataNotFoundException;
 import ru.practicum.shareit.common.exception.ForbiddenException;
 import ru.practicum.shareit.item.comment.Comment;
 import ru.practicum.shareit.item.comment.CommentDto;
 import ru.practicum.shareit.item.comment.CommentMapper;
 import ru.practicum.shareit.item.comment.CommentService;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.request.Request;
 import ru.practicum.shareit.request.RequestService;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserService;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
-@Slf4j
 @Service
 public class ItemServiceImpl implements ItemService {
+    // Тот же предел, что у шлюза
+    static final int CREATE_ALL_MAX_SIZE = 1000;
+
     private final ItemRepository itemRepository;
     private final UserService userService;
     private final CommentService commentService;
     private final BookingService bookingService;
     private final RequestService requestService;
+    private final ItemSearchMode searchMode;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemCardCache itemCardCache;
 
     @Autowired
     public ItemServiceImpl(ItemRepository itemRepository,
                            UserService userService,
                            CommentService commentService,
                            BookingService bookingService,
-                           @Lazy RequestService requestService) {
+                           @Lazy RequestService requestService,
+                           @Value("${shareit.search.mode:LIKE}") ItemSearchMode searchMode,
+                           ItemSearchIndex itemSearchIndex,
+                           ItemCardCache itemCardCache) {
         this.itemRepository = itemRepository;
         this.userService = userService;
         this.commentService = commentService;
         this.bookingService = bookingService;
         this.requestService = requestService;
+        this.searchMode = searchMode;
+        this.itemSearchIndex = itemSearchIndex;
+        this.itemCardCache = itemCardCache;
     }
 
     @Override
-    public List<Item> findByOwnerId(long ownerId) {
-        log.debug(LoggerMessagePattern.DEBUG, "findItemsByOwnerId", ownerId);
-        try {
-            return itemRepository.findByOwner_Id(ownerId);
-        } catch (Exception e) {
-            log.error(LoggerMessagePattern.ERROR, "findItemsByOwnerId", ownerId, e.getMessage(), e.getClass());
-            throw e;
-        }
+    public List<ItemView> findByOwnerId(long ownerId) {
+        return itemRepository.findViewsByOwnerId(ownerId);
     }
 
     @Override
     public List<Item> findByRequestId(long requestId) {
-        log.debug(LoggerMessagePattern.DEBUG, "findItemsByRequestId", requestId);
-        try {
-            return itemRepository.findByRequest_Id(requestId);
-        } catch (Exception e) {
-            log.error(LoggerMessagePattern.ERROR, "findItemsByRequestId", requestId, e.getMessage(), e.getClass());
-            throw e;
+        return itemRepository.findByRequest_Id(requestId);
+    }
+
+    @Override
+    public List<Item> findByRequestIds(Collection<Long> requestIds) {
+        if (requestIds.isEmpty()) {
+            return Collections.emptyList();
         }
+        return itemRepository.findByRequest_IdIn(requestIds);
     }
 
     @Override
     public Item findById(long id) {
-        log.debug(LoggerMessagePattern.DEBUG, "findItemById", id);
-        try {
-            return itemRepository.findById(id).orElseThrow(() ->
-                    new DataNotFoundException("Вещь с id: %d не найдена".formatted(id)));
-        } catch (Exception e) {
-            log.error(LoggerMessagePattern.ERROR, "findItemById", id, e.getMessage(), e.getClass());
-            throw e;
-        }
+        return itemRepository.findById(id).orElseThrow(() ->
+                new DataNotFoundException("Вещь с id: %d не найдена".formatted(id)));
+    }
+
+    @Override
+    public ItemCardVersion findCardVersion(long itemId) {
+        return itemCardCache.getVersion(itemId, id -> itemRepository.findCardVersion(id, Instant.now())
+                .orElseThrow(() -> new DataNotFoundException("Вещь с id: %d не найдена".formatted(id))));
     }
 
     @Override
     public List<Item> findByText(String query) {
-        log.debug(LoggerMessagePattern.DEBUG, "findItemByText", query);
-        try {
+        if (searchMode == ItemSearchMode.INDEX && itemSearchIndex.isReady()) {
+            return findByIds(itemSearchIndex.search(query));
+        }
+        if (searchMode != ItemSearchMode.FULLTEXT) {
             return itemRepository.findByText(query);
-        } catch (Exception e) {
-            log.error(LoggerMessagePattern.ERROR, "findItemByText", query, e.getMessage(), e.getClass());
-            throw e;
         }
+
+        String tsQuery = toPrefixTsQuery(query);
+        if (tsQuery.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return itemRepository.findByTextRanked(tsQuery);
     }
 
     @Override
     public List<ItemDto> findByOwnerIdWithComments(long ownerId) {
-        List<Item> items = findByOwnerId(ownerId);
-        List<Long> itemIds = items.stream().map(Item::getId).toList();
+        List<ItemView> items = findByOwnerId(ownerId);
+        List<Long> itemIds = items.stream().map(ItemView::getId).toList();
 
         Map<Long, List<Comment>> itemIdToComments = commentService.findByItemIds(itemIds)
                 .stream()
                 .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
 
+        Instant now = Instant.now();
+        Map<Long, BookingDto> itemIdToLastBooking = new HashMap<>();
+        Map<Long, BookingDto> itemIdToNextBooking = new HashMap<>();
+        for (Booking booking : bookingService.findLastAndNextForItems(itemIds, now)) {
+            Map<Long, BookingDto> target = booking.getStart().isAfter(now) ? itemIdToNextBooking : itemIdToLastBooking;
+            target.put(booking.getItem().getId(), BookingMapper.toDto(booking));
+        }
+
         return items.stream()
                 .map(item -> (ItemDto) ItemMapper.toDto(item,
-                        CommentMapper.toDto(itemIdToComments.getOrDefault(item.getId(), Collections.emptyList())))
+                        CommentMapper.toDto(itemIdToComments.getOrDefault(item.getId(), Collections.emptyList())),
+                        itemIdToLastBooking.get(item.getId()),
+                        itemIdToNextBooking.get(item.getId()))
                 )
                 .toList();
     }
 
     @Override
     public ItemDto findByIdWithCommentsAndBookings(long itemId) {
-        Item item = findById(itemId);
-        List<Comment> comments = commentService.findByItemIds(List.of(itemId));
-        List<CommentDto> commentsDto = CommentMapper.toDto(comments);
+        List<ItemCardRow> rows = itemRepository.findCardRows(itemId, Instant.now());
+        if (rows.isEmpty()) {
+            throw new DataNotFoundException("Вещь с id: %d не найдена".formatted(itemId));
+        }
+
+        ItemCardRow first = rows.getFirst();
+        List<Comment> comments = rows.stream()
+                .map(ItemCardRow::comment)
+                .filter(Objects::nonNull)
+                .toList();
+        BookingDto lastBookingDto = first.lastBooking() != null ? BookingMapper.toDto(first.lastBooking()) : null;
+        BookingDto nextBookingDto = first.nextBooking() != null ? BookingMapper.toDto(first.nextBooking()) : null;
 
-        Booking lastBooking = bookingService.findLastForItem(itemId);
-        Booking nextBooking = bookingService.findNextForItem(itemId);
-        BookingDto lastBookingDto = lastBooking != null ? BookingMapper.toDto(lastBooking) : null;
-        BookingDto nextBookingDto = nextBooking != null ? BookingMapper.toDto(nextBooking) : null;
+        return ItemMapper.toDto(first.item(), CommentMapper.toDto(comments), lastBookingDto, nextBookingDto);
+    }
 
-        return ItemMapper.toDto(item, commentsDto, lastBookingDto, nextBookingDto);
+    @Override
+    public ItemDto findCard(ItemCardVersion version) {
+        return itemCardCache.getCard(version, key -> findByIdWithCommentsAndBookings(key.itemId()));
     }
 
     @Override
     public Item create(long ownerId, Item item, Optional<Long> requestId) {
-        log.debug(LoggerMessagePattern.DEBUG, "createItem", item);
-        try {
-            User owner = userService.findById(ownerId);
-            item.setOwner(owner);
+        checkForCreate(item);
+        User owner = userService.findById(ownerId);
+        item.setOwner(owner);
+
+        if (requestId.isPresent()) {
+            Request request = requestService.findById(requestId.get());
+            item.setRequest(request);
+        }
+        Item saved = itemRepository.save(item);
+        afterCommit(() -> itemSearchIndex.index(saved));
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public List<Item> createAll(long ownerId, List<ItemCreateDto> itemDtos) {
+        if (itemDtos == null || itemDtos.isEmpty() || itemDtos.size() > CREATE_ALL_MAX_SIZE) {
+            throw new ValidationException("Пачка должна содержать от 1 до %d вещей".formatted(CREATE_ALL_MAX_SIZE));
+        }
+        // Поля проверяются до первого запроса к БД: ошибка в одной вещи отклоняет всю пачку
+        List<Item> items = new ArrayList<>(itemDtos.size());
+        for (ItemCreateDto itemDto : itemDtos) {
+            if (itemDto == null) {
+                throw new ValidationException("Пачка не должна содержать пустых вещей");
+            }
+            Item item = ItemMapper.toModel(itemDto);
+            item.setId(null);
+            checkForCreate(item);
+            items.add(item);
+        }
+
+        // Владелец и запросы проверяются один раз на всю пачку
+        User owner = userService.findById(ownerId);
+        Set<Long> requestIds = itemDtos.stream()
+                .map(ItemCreateDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Request> requests = requestService.findByIds(requestIds).stream()
+                .collect(Collectors.toMap(Request::getId, Function.identity()));
 
-            if (requestId.isPresent()) {
-                Request request = requestService.findById(requestId.get());
-                item.setRequest(request);
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            Long requestId = itemDtos.get(i).getRequestId();
+            item.setOwner(owner);
+            if (requestId != null) {
+                item.setRequest(requests.get(requestId));
             }
-            return itemRepository.save(item);
-        } catch (Exception e) {
-            log.error(LoggerMessagePattern.ERROR, "createItem", item, e.getMessage(), e.getClass());
-            throw e;
         }
+
+        List<Item> saved = itemRepository.saveAll(items);
+        afterCommit(() -> saved.forEach(itemSearchIndex::index));
+        return saved;
     }
 
     @Override
+    @Transactional
     public Item update(long ownerId, Item item) {
-        log.debug(LoggerMessagePattern.DEBUG, "updateItem", item);
-        try {
-            userService.findById(ownerId);
+        userService.checkForExists(ownerId);
 
-            Long id = item.getId();
-            Item oldItem = itemRepository.findById(id).orElseThrow(() ->
-                    new DataNotFoundException("Вещь с id: %d не найдена".formatted(id)));
+        Long id = item.getId();
+        Item oldItem = itemRepository.findById(id).orElseThrow(() ->
+                new DataNotFoundException("Вещь с id: %d не найдена".formatted(id)));
 
-            checkUserForEditPermissions(ownerId, oldItem);
+        checkUserForEditPermissions(ownerId, oldItem);
 
-            if (item.getName() != null) {
-                oldItem.setName(item.getName());
-            }
-            if (item.getDescription() != null) {
-                oldItem.setDescription(item.getDescription());
-            }
-            if (item.getIsAvailable() != null) {
-                oldItem.setIsAvailable(item.getIsAvailable());
-            }
+        if (item.getName() != null) {
+            oldItem.setName(item.getName());
+        }
+        if (item.getDescription() != null) {
+            oldItem.setDescription(item.getDescription());
+        }
+        if (item.getIsAvailable() != null) {
+            oldItem.setIsAvailable(item.getIsAvailable());
+        }
 
-            return itemRepository.save(oldItem);
-        } catch (Exception e) {
-            log.error(LoggerMessagePattern.ERROR, "updateItem", item, e.getMessage(), e.getClass());
-            throw e;
+        // Конфликт версий с параллельным подтверждением брони проявится здесь, а не при коммите
+        Item saved = itemRepository.saveAndFlush(oldItem);
+        afterCommit(() -> itemSearchIndex.index(saved));
+        itemCardCache.evict(id);
+        return saved;
+    }
+
+    // Индекс поиска и кэш карточек не должны видеть изменения, которые могут откатиться
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
         }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
+    // Те же правила, что у шлюза для создания вещи: сервер не полагается на то, что запрос прошёл через шлюз
+    private static void checkForCreate(Item item) {
+        if (item.getName() == null || item.getName().isBlank()) {
+            throw new ValidationException("Название вещи не может быть пустым");
+        }
+        if (item.getDescription() == null || item.getDescription().isBlank()) {
+            throw new ValidationException("Описание вещи не может быть пустым");
+        }
+        if (item.getIsAvailable() == null) {
+            throw new ValidationException("Доступность вещи должна быть указана");
+        }
+    }
 
     private void checkUserForEditPermissions(long userId, Item item) {
         if (userId != item.getOwner().getId()) {
             throw new ForbiddenException("Пользователь с id: %d не имеет прав на редактирование вещи с id: %d".formatted(userId, item.getId()));
         }
     }
+
+    private List<Item> findByIds(long[] ids) {
+        if (ids.length == 0) {
+            return Collections.emptyList();
+        }
+
+        List<Long> idList = Arrays.stream(ids).boxed().toList();
+        List<Item> items = new ArrayList<>(itemRepository.findAllById(idList));
+        items.sort(Comparator.comparing(Item::getId));
+        return items;
+    }
+
+    private static String toPrefixTsQuery(String query) {
+        return ItemSearchIndex.tokenize(query).stream()
+                .map(term -> term + ":*")
+                .collect(Collectors.joining(" & "));
+    }
 }
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item;
+
+public interface ItemText {
+
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item;
+
+public interface ItemView {
+
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    Boolean getAvailable();
+
+    Long getOwnerId();
+
+    String getOwnerName();
+}
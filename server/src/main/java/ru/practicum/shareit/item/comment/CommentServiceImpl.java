@@ -1,40 +1,42 @@
 package ru.practicum.shareit.item.comment;
 
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingRepository;
-import ru.practicum.shareit.common.LoggerMessagePattern;
 import ru.practicum.shareit.common.exception.DataNotAvailableException;
 import ru.practicum.shareit.common.exception.DataNotFoundException;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemCardCache;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.user.User;
-import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
 
 import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-@Slf4j
 @Service
 public class CommentServiceImpl implements CommentService {
     private final CommentRepository commentRepository;
     private final ItemRepository itemRepository;
-    private final UserRepository userRepository;
+    private final UserService userService;
     private final BookingRepository bookingRepository;
+    private final ItemCardCache itemCardCache;
 
     @Autowired
     public CommentServiceImpl(CommentRepository commentRepository,
                               ItemRepository itemRepository,
-                              UserRepository userRepository,
-                              BookingRepository bookingRepository) {
+                              UserService userService,
+                              BookingRepository bookingRepository,
+                              ItemCardCache itemCardCache) {
         this.commentRepository = commentRepository;
         this.itemRepository = itemRepository;
-        this.userRepository = userRepository;
+        this.userService = userService;
         this.bookingRepository = bookingRepository;
+        this.itemCardCache = itemCardCache;
     }
 
     @Override
@@ -43,33 +45,28 @@ public class CommentServiceImpl implements CommentService {
     }
 
     @Override
+    @Transactional
     public Comment create(long itemId, long authorId, Comment comment) {
-        log.debug(LoggerMessagePattern.DEBUG, "createComment", comment);
-        try {
-            Optional<Item> itemOptional = itemRepository.findById(itemId);
-            if (itemOptional.isEmpty()) {
-                throw new DataNotFoundException("Вещь с id: %d не найдена".formatted(itemId));
-            }
-
-            Optional<User> authorOptional = userRepository.findById(authorId);
-            if (authorOptional.isEmpty()) {
-                throw new DataNotFoundException("Пользователь с id: %d не найден".formatted(authorId));
-            }
+        Optional<Item> itemOptional = itemRepository.findById(itemId);
+        if (itemOptional.isEmpty()) {
+            throw new DataNotFoundException("Вещь с id: %d не найдена".formatted(itemId));
+        }
 
-            Instant now = Instant.now();
-            List<Booking> bookings = bookingRepository.findByBooker_IdAndItem_IdAndEndIsBefore(authorId, itemId, now);
-            if (bookings.isEmpty()) {
-                throw new DataNotAvailableException(("Пользователь с id: %d не арендовал вещь с id: %d " +
-                        "либо аренда не завершена").formatted(authorId, itemId));
-            }
+        User author = userService.findById(authorId);
 
-            comment.setItem(itemOptional.get());
-            comment.setAuthor(authorOptional.get());
-            comment.setCreatedAt(now);
-            return commentRepository.save(comment);
-        } catch (Exception e) {
-            log.error(LoggerMessagePattern.ERROR, "createComment", comment, e.getMessage(), e.getClass());
-            throw e;
+        Instant now = Instant.now();
+        List<Booking> bookings = bookingRepository.findByBooker_IdAndItem_IdAndEndIsBefore(authorId, itemId, now);
+        if (bookings.isEmpty()) {
+            throw new DataNotAvailableException(("Пользователь с id: %d не арендовал вещь с id: %d " +
+                    "либо аренда не завершена").formatted(authorId, itemId));
         }
+
+        comment.setItem(itemOptional.get());
+        comment.setAuthor(author);
+        comment.setCreatedAt(now);
+        Comment saved = commentRepository.save(comment);
+        itemRepository.incrementCardVersions(List.of(itemId));
+        itemCardCache.evict(itemId);
+        return saved;
     }
 }
@@ -1,20 +1,29 @@
 package ru.practicum.shareit.request;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.common.ETags;
+import ru.practicum.shareit.common.PageCursor;
 import ru.practicum.shareit.request.dto.RequestDto;
+import ru.practicum.shareit.request.dto.RequestWithItemsDto;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/requests")
 public class RequestController {
+    private static final String DEFAULT_PAGE_SIZE = "100";
     private final RequestService requestService;
 
     @Autowired
@@ -23,18 +32,49 @@ public class RequestController {
     }
 
     @GetMapping
-    public List<RequestDto> findByRequestorId(@RequestHeader(name = "X-Sharer-User-Id") long requestorId) {
-        return RequestMapper.toDto(requestService.findByRequestorId(requestorId));
+    public ResponseEntity<List<RequestWithItemsDto>> findByRequestorId(
+            @RequestHeader(name = "X-Sharer-User-Id") long requestorId,
+            WebRequest request) {
+        Optional<String> eTag = requestService.findVersionByRequestorId(requestorId)
+                .map(version -> eTagOf("requests", requestorId, version));
+        if (eTag.isEmpty()) {
+            return ResponseEntity.ok(requestService.findByRequestorId(requestorId));
+        }
+        if (request.checkNotModified(eTag.get())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag.get())
+                .cacheControl(ETags.CACHE_CONTROL)
+                .body(requestService.findByRequestorId(requestorId));
     }
 
     @GetMapping("/all")
-    public List<RequestDto> findAll() {
-        return RequestMapper.toDto(requestService.findAll());
+    public ResponseEntity<List<RequestDto>> findAll(
+            @RequestHeader(name = "X-Sharer-User-Id") long userId,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        Window<RequestView> window = requestService.findAll(userId, PageCursor.decode(cursor), size);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (window.hasNext() && !window.isEmpty()) {
+            RequestView last = window.getContent().getLast();
+            response.header(PageCursor.HEADER, new PageCursor(last.getCreatedAt(), last.getId()).encode());
+        }
+        return response.body(window.stream().map(RequestMapper::toDto).toList());
     }
 
     @GetMapping("/{id}")
-    public RequestDto findByIdWithItems(@PathVariable(name = "id") long requestId) {
-        return requestService.findByIdWithItems(requestId);
+    public ResponseEntity<RequestDto> findByIdWithItems(@PathVariable(name = "id") long requestId,
+                                                        WebRequest request) {
+        String eTag = eTagOf("request", requestId, requestService.findVersionById(requestId));
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(ETags.CACHE_CONTROL)
+                .body(requestService.findByIdWithItems(requestId));
     }
 
     @PostMapping
@@ -43,4 +83,11 @@ public class RequestController {
         Request request = RequestMapper.toModel(requestDto);
         return RequestMapper.toDto(requestService.create(requestorId, request));
     }
+
+    private static String eTagOf(String kind, long id, RequestVersion version) {
+        return ETags.of(kind, id, version.getRequestorVersion(),
+                version.getRequestCount(), version.getLastRequestId(),
+                version.getItemCount(), version.getLastItemId(), version.getItemsVersion(),
+                version.getOwnersVersion());
+    }
 }
@@ -25,6 +25,15 @@ public class RequestMapper {
         return requestDto;
     }
 
+    public static RequestDto toDto(RequestView request) {
+        RequestDto requestDto = new RequestDto();
+        requestDto.setId(request.getId());
+        requestDto.setDescription(request.getDescription());
+        requestDto.setRequestor(BaseDto.of(request.getRequestorId(), request.getRequestorName()));
+        requestDto.setCreatedAt(LocalDateTime.from(request.getCreatedAt().atZone(TIMEZONE_ID)));
+        return requestDto;
+    }
+
     public static RequestDto toDto(Request request) {
         BaseDto requestor = BaseDto.from(request.getRequestor());
 
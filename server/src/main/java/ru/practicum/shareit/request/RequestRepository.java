@@ -1,10 +1,50 @@
 package ru.practicum.shareit.request;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 public interface RequestRepository extends JpaRepository<Request, Long> {
 
+    @EntityGraph(attributePaths = "requestor")
     List<Request> findByRequestor_IdOrderByCreatedAtDesc(long requestorId);
+
+    @Query("select r.id as id, r.description as description, r.createdAt as createdAt, " +
+            "u.id as requestorId, u.name as requestorName " +
+            "from Request r join r.requestor u " +
+            "where u.id <> ?1 " +
+            "order by r.createdAt desc, r.id desc")
+    List<RequestView> findViewsExceptRequestor(long userId, Limit limit);
+
+    @Query("select r.id as id, r.description as description, r.createdAt as createdAt, " +
+            "u.id as requestorId, u.name as requestorName " +
+            "from Request r join r.requestor u " +
+            "where u.id <> ?1 and (r.createdAt < ?2 or (r.createdAt = ?2 and r.id < ?3)) " +
+            "order by r.createdAt desc, r.id desc")
+    List<RequestView> findViewsExceptRequestorAfter(long userId, Instant createdAt, long id, Limit limit);
+
+    @Query("select u.version as requestorVersion, 1L as requestCount, r.id as lastRequestId, " +
+            "(select count(i.id) from Item i where i.request.id = r.id) as itemCount, " +
+            "(select coalesce(max(i.id), 0) from Item i where i.request.id = r.id) as lastItemId, " +
+            "(select coalesce(sum(i.version), 0) from Item i where i.request.id = r.id) as itemsVersion, " +
+            "(select coalesce(sum(o.version), 0) from Item i join i.owner o where i.request.id = r.id) as ownersVersion " +
+            "from Request r join r.requestor u " +
+            "where r.id = ?1")
+    Optional<RequestVersion> findVersionById(long requestId);
+
+    @Query("select u.version as requestorVersion, " +
+            "(select count(r.id) from Request r where r.requestor.id = u.id) as requestCount, " +
+            "(select coalesce(max(r.id), 0) from Request r where r.requestor.id = u.id) as lastRequestId, " +
+            "(select count(i.id) from Item i where i.request.requestor.id = u.id) as itemCount, " +
+            "(select coalesce(max(i.id), 0) from Item i where i.request.requestor.id = u.id) as lastItemId, " +
+            "(select coalesce(sum(i.version), 0) from Item i where i.request.requestor.id = u.id) as itemsVersion, " +
+            "(select coalesce(sum(o.version), 0) from Item i join i.owner o where i.request.requestor.id = u.id) as ownersVersion " +
+            "from User u " +
+            "where u.id = ?1")
+    Optional<RequestVersion> findVersionByRequestorId(long requestorId);
 }
@@ -1,18 +1,28 @@
 package ru.practicum.shareit.request;
 
+import org.springframework.data.domain.Window;
+import ru.practicum.shareit.common.PageCursor;
 import ru.practicum.shareit.request.dto.RequestWithItemsDto;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface RequestService {
 
-    List<Request> findAll();
+    Window<RequestView> findAll(long userId, PageCursor cursor, int size);
 
-    List<Request> findByRequestorId(long requestorId);
+    List<RequestWithItemsDto> findByRequestorId(long requestorId);
 
     Request findById(long id);
 
+    List<Request> findByIds(Collection<Long> ids);
+
     RequestWithItemsDto findByIdWithItems(long id);
 
+    RequestVersion findVersionById(long id);
+
+    Optional<RequestVersion> findVersionByRequestorId(long requestorId);
+
     Request create(long requestorId, Request request);
 }
@@ -1,11 +1,12 @@
 package ru.practicum.shareit.request;
 
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.common.LoggerMessagePattern;
+import ru.practicum.shareit.common.PageCursor;
 import ru.practicum.shareit.common.exception.DataNotFoundException;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemMapper;
@@ -16,9 +17,14 @@ import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserService;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
-@Slf4j
 @Service
 public class RequestServiceImpl implements RequestService {
     private final RequestRepository requestRepository;
@@ -35,65 +41,81 @@ public class RequestServiceImpl implements RequestService {
     }
 
     @Override
-    public List<Request> findAll() {
-        log.debug(LoggerMessagePattern.DEBUG, "findAllRequests");
-        try {
-            Sort sort = Sort.by(Sort.Direction.DESC, "createdAt");
-            return requestRepository.findAll(sort);
-        } catch (Exception e) {
-            log.error(LoggerMessagePattern.ERROR, "findAllRequests", null, e.getMessage(), e.getClass());
-            throw e;
-        }
+    public Window<RequestView> findAll(long userId, PageCursor cursor, int size) {
+        // Запрашиваем на одну запись больше, чтобы понять, есть ли следующая страница
+        Limit limit = Limit.of(PageCursor.checkSize(size) + 1);
+        List<RequestView> views = cursor == null ?
+                requestRepository.findViewsExceptRequestor(userId, limit) :
+                requestRepository.findViewsExceptRequestorAfter(userId, cursor.timestamp(), cursor.id(), limit);
+
+        boolean hasNext = views.size() > size;
+        List<RequestView> content = hasNext ? views.subList(0, size) : views;
+        return Window.from(content, index -> ScrollPosition.forward(Map.of(
+                "createdAt", content.get(index).getCreatedAt(),
+                "id", content.get(index).getId())), hasNext);
     }
 
     @Override
-    public List<Request> findByRequestorId(long requestorId) {
-        log.debug(LoggerMessagePattern.DEBUG, "findRequestsByRequestorId", requestorId);
-        try {
-            return requestRepository.findByRequestor_IdOrderByCreatedAtDesc(requestorId);
-        } catch (Exception e) {
-            log.error(LoggerMessagePattern.ERROR, "findRequestsByRequestorId", requestorId, e.getMessage(), e.getClass());
-            throw e;
-        }
+    public List<RequestWithItemsDto> findByRequestorId(long requestorId) {
+        List<Request> requests = requestRepository.findByRequestor_IdOrderByCreatedAtDesc(requestorId);
+        List<Long> requestIds = requests.stream().map(Request::getId).toList();
+
+        Map<Long, List<ItemDto>> requestIdToItems = itemService.findByRequestIds(requestIds)
+                .stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId(),
+                        Collectors.mapping(ItemMapper::toDto, Collectors.toList())));
+
+        return requests.stream()
+                .map(request -> RequestMapper.toDto(request,
+                        requestIdToItems.getOrDefault(request.getId(), Collections.emptyList())))
+                .toList();
     }
 
     @Override
     public Request findById(long id) {
-        log.debug(LoggerMessagePattern.DEBUG, "findRequestById", id);
-        try {
-            return requestRepository.findById(id).orElseThrow(() ->
-                    new DataNotFoundException("Запрос с id: %d не найден".formatted(id)));
-        } catch (Exception e) {
-            log.error(LoggerMessagePattern.ERROR, "findRequestById", id, e.getMessage(), e.getClass());
-            throw e;
+        return requestRepository.findById(id).orElseThrow(() ->
+                new DataNotFoundException("Запрос с id: %d не найден".formatted(id)));
+    }
+
+    @Override
+    public List<Request> findByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Request> requests = requestRepository.findAllById(ids);
+        if (requests.size() < ids.size()) {
+            Set<Long> found = requests.stream().map(Request::getId).collect(Collectors.toSet());
+            Long missing = ids.stream().filter(id -> !found.contains(id)).findFirst().orElseThrow();
+            throw new DataNotFoundException("Запрос с id: %d не найден".formatted(missing));
         }
+        return requests;
     }
 
     @Override
     public RequestWithItemsDto findByIdWithItems(long requestId) {
-        log.debug(LoggerMessagePattern.DEBUG, "findRequestByIdWithItems", requestId);
-        try {
-            Request request = findById(requestId);
-            List<Item> items = itemService.findByRequestId(requestId);
-            List<ItemDto> itemDtos = ItemMapper.toDto(items);
-            return RequestMapper.toDto(request, itemDtos);
-        } catch (Exception e) {
-            log.error(LoggerMessagePattern.ERROR, "findRequestByIdWithItems", requestId, e.getMessage(), e.getClass());
-            throw e;
-        }
+        Request request = findById(requestId);
+        List<Item> items = itemService.findByRequestId(requestId);
+        List<ItemDto> itemDtos = ItemMapper.toDto(items);
+        return RequestMapper.toDto(request, itemDtos);
+    }
+
+    @Override
+    public RequestVersion findVersionById(long id) {
+        return requestRepository.findVersionById(id).orElseThrow(() ->
+                new DataNotFoundException("Запрос с id: %d не найден".formatted(id)));
+    }
+
+    @Override
+    public Optional<RequestVersion> findVersionByRequestorId(long requestorId) {
+        return requestRepository.findVersionByRequestorId(requestorId);
     }
 
     @Override
     public Request create(long requestorId, Request request) {
-        log.debug(LoggerMessagePattern.DEBUG, "createRequest", request);
-        try {
-            User requestor = userService.findById(requestorId);
-            request.setRequestor(requestor);
-            request.setCreatedAt(Instant.now());
-            return requestRepository.save(request);
-        } catch (Exception e) {
-            log.error(LoggerMessagePattern.ERROR, "createRequest", request, e.getMessage(), e.getClass());
-            throw e;
-        }
+        User requestor = userService.findById(requestorId);
+        request.setRequestor(requestor);
+        request.setCreatedAt(Instant.now());
+        return requestRepository.save(request);
     }
 }
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.request;
+
+public interface RequestVersion {
+
+    Long getRequestorVersion();
+
+    Long getRequestCount();
+
+    Long getLastRequestId();
+
+    Long getItemCount();
+
+    Long getLastItemId();
+
+    Long getItemsVersion();
+
+    Long getOwnersVersion();
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.request;
+
+import java.time.Instant;
+
+public interface RequestView {
+
+    Long getId();
+
+    String getDescription();
+
+    Instant getCreatedAt();
+
+    Long getRequestorId();
+
+    String getRequestorName();
+}
@@ -5,6 +5,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -20,6 +21,8 @@ public class User {
     private Long id;
     private String name;
     private String email;
+    @Version
+    private Long version;
 
     @Override
     public boolean equals(Object o) {
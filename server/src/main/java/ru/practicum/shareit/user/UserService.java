@@ -8,6 +8,8 @@ public interface UserService {
 
     User findById(long id);
 
+    void checkForExists(long id);
+
     User create(User obj);
 
     User update(User obj);
@@ -1,94 +1,97 @@
 package ru.practicum.shareit.user;
 
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.common.exception.DataNotFoundException;
 import ru.practicum.shareit.common.exception.DuplicatedDataException;
-import ru.practicum.shareit.common.LoggerMessagePattern;
+import ru.practicum.shareit.item.ItemRepository;
 
 import java.util.List;
 import java.util.Objects;
 
-@Slf4j
 @Service
 public class UserServiceImpl implements UserService {
+    static final String USERS_CACHE = "users";
+
     private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final Cache usersCache;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, ItemRepository itemRepository, CacheManager cacheManager) {
         this.userRepository = userRepository;
+        this.itemRepository = itemRepository;
+        // Сброс из кэша внутри транзакции откладывается до её фиксации
+        this.usersCache = new TransactionAwareCacheDecorator(cacheManager.getCache(USERS_CACHE));
     }
 
     @Override
     public List<User> findAll() {
-        log.debug(LoggerMessagePattern.DEBUG, "findAllUsers", null);
-        try {
-            return userRepository.findAll();
-        } catch (Exception e) {
-            log.error(LoggerMessagePattern.ERROR, "findAllUsers", null, e.getMessage(), e.getClass());
-            throw e;
-        }
+        return userRepository.findAll();
     }
 
     @Override
     public User findById(long id) {
-        log.debug(LoggerMessagePattern.DEBUG, "findUserById", id);
-        try {
-            return userRepository.findById(id).orElseThrow(() ->
-                    new DataNotFoundException("Пользователь с id: %d не найден".formatted(id)));
-        } catch (Exception e) {
-            log.error(LoggerMessagePattern.ERROR, "findUserById", id, e.getMessage(), e.getClass());
-            throw e;
+        UserSnapshot snapshot = usersCache.get(id, UserSnapshot.class);
+        if (snapshot == null) {
+            snapshot = UserSnapshot.from(findEntityById(id));
+            usersCache.put(id, snapshot);
         }
+        return snapshot.toUser();
     }
 
     @Override
-    public User create(User user) {
-        log.debug(LoggerMessagePattern.DEBUG, "createUser", user);
-        try {
-            checkEmailForExists(user);
-            return userRepository.save(user);
-        } catch (Exception e) {
-            log.error(LoggerMessagePattern.ERROR, "createUser", user, e.getMessage(), e.getClass());
-            throw e;
+    public void checkForExists(long id) {
+        // Пользователь в кэше заведомо существует, иначе достаточно exists-запроса
+        if (usersCache.get(id) != null) {
+            return;
+        }
+        if (!userRepository.existsById(id)) {
+            throw new DataNotFoundException("Пользователь с id: %d не найден".formatted(id));
         }
     }
 
     @Override
-    public User update(User user) {
-        log.debug(LoggerMessagePattern.DEBUG, "updateUser", user);
-        try {
-            Long id = user.getId();
-            checkUserForExists(id);
+    public User create(User user) {
+        checkEmailForExists(user);
+        return userRepository.save(user);
+    }
 
-            User oldItem = findById(id);
+    @Override
+    @Transactional
+    public User update(User user) {
+        User oldUser = findEntityById(user.getId());
 
-            if (user.getName() == null) {
-                user.setName(oldItem.getName());
-            }
-            if (user.getEmail() == null) {
-                user.setEmail(oldItem.getEmail());
+        if (user.getName() != null && !user.getName().equals(oldUser.getName())) {
+            oldUser.setName(user.getName());
+            itemRepository.incrementCardVersionsByUserId(oldUser.getId());
+        }
+        if (user.getEmail() != null) {
+            if (!user.getEmail().equalsIgnoreCase(oldUser.getEmail())) {
+                checkEmailForExists(user);
             }
-
-            checkEmailForExists(user);
-            return userRepository.save(user);
-        } catch (Exception e) {
-            log.error(LoggerMessagePattern.ERROR, "updateUser", user, e.getMessage(), e.getClass());
-            throw e;
+            oldUser.setEmail(user.getEmail());
         }
+
+        usersCache.evict(oldUser.getId());
+        // Изменения сохранятся при коммите транзакции, повторный select не нужен
+        return oldUser;
     }
 
     @Override
     public void delete(long id) {
-        log.debug(LoggerMessagePattern.DEBUG, "deleteUser", id);
-        try {
-            checkUserForExists(id);
-            userRepository.deleteById(id);
-        } catch (Exception e) {
-            log.error(LoggerMessagePattern.ERROR, "deleteUser", id, e.getMessage(), e.getClass());
-            throw e;
-        }
+        checkForExists(id);
+        userRepository.deleteById(id);
+        usersCache.evict(id);
+    }
+
+    private User findEntityById(long id) {
+        return userRepository.findById(id).orElseThrow(() ->
+                new DataNotFoundException("Пользователь с id: %d не найден".formatted(id)));
     }
 
     private void checkEmailForExists(User user) {
@@ -97,10 +100,4 @@ public class UserServiceImpl implements UserService {
             throw new DuplicatedDataException("Email %s уже используется".formatted(user.getEmail()));
         }
     }
-
-    private void checkUserForExists(long id) {
-        if (userRepository.findById(id).isEmpty()) {
-            throw new DataNotFoundException("Пользователь с id: %d не найден".formatted(id));
-        }
-    }
 }
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.user;
+
+// Неизменяемая копия пользователя для кэша: управляемую сущность нельзя раздавать разным потокам и сессиям
+record UserSnapshot(Long id, String name, String email, Long version) {
+
+    static UserSnapshot from(User user) {
+        return new UserSnapshot(user.getId(), user.getName(), user.getEmail(), user.getVersion());
+    }
+
+    // Каждый вызов получает свою отсоединённую копию, заполненная версия не даёт Hibernate считать её новой
+    User toUser() {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        user.setEmail(email);
+        user.setVersion(version);
+        return user;
+    }
+}
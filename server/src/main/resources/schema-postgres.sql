@@ -0,0 +1,52 @@
+ALTER TABLE items
+    ADD COLUMN IF NOT EXISTS search_vector TSVECTOR
+        GENERATED ALWAYS AS (to_tsvector('simple', name || ' ' || description)) STORED;
+
+CREATE INDEX IF NOT EXISTS items_search_vector_idx ON items USING GIN (search_vector);
+
+-- Базы, созданные до перехода на items_seq: IDENTITY у столбца больше не используется
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+-- Последовательность не должна отставать от id, выданных ранее через IDENTITY
+SELECT setval('items_seq', GREATEST((SELECT COALESCE(MAX(id), 1) FROM items), (SELECT last_value FROM items_seq)));
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- До появления ограничения пересекающиеся подтверждённые брони не отсекались. Перед его созданием
+-- из каждой пары пересечений более поздняя бронь возвращается в WAITING на повторное решение владельца,
+-- а её id попадает в лог. Брони обходятся по началу, поэтому оставленные брони между собой не пересекаются
+DO '
+DECLARE
+    conflict_id BIGINT;
+    resolved INTEGER := 0;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''bookings_no_overlap'') THEN
+        LOOP
+            SELECT later.id INTO conflict_id
+            FROM bookings later
+            JOIN bookings earlier ON earlier.item_id = later.item_id
+                AND earlier.status = ''APPROVED''
+                AND (earlier.start_date, earlier.id) < (later.start_date, later.id)
+                AND tsrange(earlier.start_date, earlier.end_date) && tsrange(later.start_date, later.end_date)
+            WHERE later.status = ''APPROVED''
+            ORDER BY later.start_date, later.id
+            LIMIT 1;
+
+            EXIT WHEN conflict_id IS NULL;
+
+            UPDATE bookings SET status = ''WAITING'', version = version + 1 WHERE id = conflict_id;
+            resolved := resolved + 1;
+            RAISE WARNING ''bookings_no_overlap: booking % overlaps an approved booking and was moved back to WAITING'',
+                conflict_id;
+        END LOOP;
+
+        IF resolved > 0 THEN
+            RAISE WARNING ''bookings_no_overlap: % overlapping approved bookings moved back to WAITING'', resolved;
+        END IF;
+
+        ALTER TABLE bookings ADD CONSTRAINT bookings_no_overlap
+            EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date) WITH &&)
+            WHERE (status = ''APPROVED'');
+    END IF;
+END
+';
@@ -3,9 +3,10 @@
 
 CREATE TABLE IF NOT EXISTS users
 (
-    id    BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
-    name  VARCHAR(255) NOT NULL,
-    email VARCHAR(255) NOT NULL,
+    id      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name    VARCHAR(255) NOT NULL,
+    email   VARCHAR(255) NOT NULL,
+    version BIGINT       NOT NULL DEFAULT 0,
     CONSTRAINT uq_user_email UNIQUE (email)
 );
 
@@ -18,14 +19,17 @@ CREATE TABLE IF NOT EXISTS requests
     CONSTRAINT requestor_fk FOREIGN KEY (requestor_id) REFERENCES users (id)
 );
 
+-- id выдаёт последовательность items_seq блоками по 50 (см. Item), собственного генератора у столбца нет
 CREATE TABLE IF NOT EXISTS items
 (
-    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id           BIGINT PRIMARY KEY,
     name         VARCHAR(255)  NOT NULL,
     description  VARCHAR(1000) NOT NULL,
     is_available BOOL          NOT NULL DEFAULT true,
     owner_id     BIGINT        NOT NULL,
     request_id   BIGINT                 DEFAULT NULL,
+    version      BIGINT        NOT NULL DEFAULT 0,
+    card_version BIGINT        NOT NULL DEFAULT 0,
     CONSTRAINT item_owner_fk FOREIGN KEY (owner_id) REFERENCES users (id),
     CONSTRAINT item_request_fk FOREIGN KEY (request_id) REFERENCES requests (id)
 );
@@ -38,6 +42,7 @@ CREATE TABLE IF NOT EXISTS bookings
     item_id    BIGINT                      NOT NULL,
     booker_id  BIGINT                      NOT NULL,
     status     VARCHAR(30)                 NOT NULL,
+    version    BIGINT                      NOT NULL DEFAULT 0,
     CONSTRAINT booking_item_fk FOREIGN KEY (item_id) REFERENCES items (id),
     CONSTRAINT booker_fk FOREIGN KEY (booker_id) REFERENCES users (id)
 );
@@ -51,4 +56,33 @@ CREATE TABLE IF NOT EXISTS comments
     created   TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     CONSTRAINT comment_item_fk FOREIGN KEY (item_id) REFERENCES items (id),
     CONSTRAINT comment_author_fk FOREIGN KEY (author_id) REFERENCES users (id)
-);
\ No newline at end of file
+);
+
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS card_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS idx_requests_requestor_created ON requests (requestor_id, created DESC);
+CREATE INDEX IF NOT EXISTS idx_requests_created_id ON requests (created DESC, id DESC);
+
+-- Списки броней листаются по ключу (start_date, id): id в конце индекса даёт порядок без сортировки
+-- и при одинаковом начале. Индексы без id переименованы, чтобы пересоздаться в существующих базах
+DROP INDEX IF EXISTS idx_bookings_booker_start;
+DROP INDEX IF EXISTS idx_bookings_booker_status_start;
+DROP INDEX IF EXISTS idx_bookings_item_start;
+DROP INDEX IF EXISTS idx_bookings_item_status_start;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start_id ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start_id ON bookings (booker_id, status, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_item_end ON bookings (booker_id, item_id, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start_id ON bookings (item_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_end ON bookings (item_id, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start_id ON bookings (item_id, status, start_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_comments_item ON comments (item_id);
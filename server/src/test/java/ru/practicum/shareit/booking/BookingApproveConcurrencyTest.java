@@ -0,0 +1,150 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.common.exception.DataConflictException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Данные фиксируются в БД, поэтому здесь нет @Transactional и всё созданное удаляется после теста
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@SpringBootTest
+class BookingApproveConcurrencyTest {
+    private static final int BOOKINGS = 500;
+    private static final int THREADS = 16;
+
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final ItemService itemService;
+    private final ItemRepository itemRepository;
+    private final UserService userService;
+
+    private final ConcurrentLinkedQueue<Long> bookingIds = new ConcurrentLinkedQueue<>();
+    private final List<Long> userIds = new ArrayList<>();
+    private Long itemId;
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAllByIdInBatch(bookingIds);
+        if (itemId != null) {
+            itemRepository.deleteById(itemId);
+        }
+        userIds.forEach(userService::delete);
+    }
+
+    @Test
+    void parallelApprovalsNeverProduceOverlappingBookings() throws Exception {
+        User owner = createUser("concurrency.owner@mail.com");
+        User booker = createUser("concurrency.booker@mail.com");
+        Item item = itemService.create(owner.getId(), makeTestItem(), Optional.empty());
+        itemId = item.getId();
+
+        Instant base = Instant.now().plus(365, ChronoUnit.DAYS).truncatedTo(ChronoUnit.HOURS);
+        Random random = new Random(42);
+        List<Instant> starts = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS * 2; i++) {
+            starts.add(base.plus(random.nextInt(BOOKINGS), ChronoUnit.HOURS));
+        }
+
+        AtomicInteger conflicts = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<Void>> creates = new ArrayList<>();
+            for (Instant start : starts.subList(0, BOOKINGS)) {
+                creates.add(() -> create(booker, start, conflicts));
+            }
+            awaitAll(executor.invokeAll(creates));
+
+            // Подтверждения идут вперемешку с созданием новых броней той же вещи
+            List<Callable<Void>> mixed = new ArrayList<>();
+            for (Long bookingId : List.copyOf(bookingIds)) {
+                mixed.add(() -> approve(owner, bookingId, conflicts));
+            }
+            for (Instant start : starts.subList(BOOKINGS, BOOKINGS * 2)) {
+                mixed.add(() -> create(booker, start, conflicts));
+            }
+            awaitAll(executor.invokeAll(mixed));
+        } finally {
+            executor.shutdown();
+        }
+
+        List<Booking> approved = bookingRepository.findAllById(bookingIds).stream()
+                .filter(booking -> booking.getStatus() == BookingState.APPROVED)
+                .sorted(Comparator.comparing(Booking::getStart))
+                .toList();
+
+        assertTrue(approved.size() > 1);
+        assertTrue(conflicts.get() > 0);
+        for (int i = 1; i < approved.size(); i++) {
+            assertTrue(!approved.get(i).getStart().isBefore(approved.get(i - 1).getEnd()),
+                    "Пересекаются брони " + approved.get(i - 1).getId() + " и " + approved.get(i).getId());
+        }
+        // Каждое успешное подтверждение увеличивает версию вещи ровно на единицу
+        assertEquals(item.getVersion() + approved.size(), itemRepository.findById(itemId).orElseThrow().getVersion());
+    }
+
+    private Void create(User booker, Instant start, AtomicInteger conflicts) {
+        try {
+            Booking booking = bookingService.create(booker.getId(), itemId, start, start.plus(3, ChronoUnit.HOURS));
+            bookingIds.add(booking.getId());
+        } catch (DataConflictException e) {
+            conflicts.incrementAndGet();
+        }
+        return null;
+    }
+
+    private Void approve(User owner, long bookingId, AtomicInteger conflicts) {
+        try {
+            bookingService.approve(bookingId, owner.getId(), true);
+        } catch (DataConflictException e) {
+            conflicts.incrementAndGet();
+        }
+        return null;
+    }
+
+    private static void awaitAll(List<Future<Void>> futures) throws Exception {
+        for (Future<Void> future : futures) {
+            future.get();
+        }
+    }
+
+    private User createUser(String email) {
+        User user = new User();
+        user.setName("John Doe");
+        user.setEmail(email);
+        User created = userService.create(user);
+        userIds.add(created.getId());
+        return created;
+    }
+
+    private static Item makeTestItem() {
+        Item item = new Item();
+        item.setName("Hummer");
+        item.setDescription("Good Hummer");
+        item.setIsAvailable(true);
+        return item;
+    }
+}
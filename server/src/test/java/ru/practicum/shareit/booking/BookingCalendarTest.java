@@ -0,0 +1,122 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookingCalendarTest {
+    private static final Instant T0 = Instant.parse("2030-01-01T00:00:00Z");
+
+    private BookingCalendar calendar;
+
+    @BeforeEach
+    void setUp() {
+        calendar = new BookingCalendar(null);
+        calendar.add(1, at(10), at(20));
+        calendar.add(1, at(30), at(40));
+        calendar.add(1, at(0), at(5));
+    }
+
+    @Test
+    void hasOverlapWithHalfOpenIntervals() {
+        assertTrue(calendar.hasOverlap(1, at(15), at(16)));
+        assertTrue(calendar.hasOverlap(1, at(19), at(31)));
+        assertFalse(calendar.hasOverlap(1, at(20), at(30)));
+        assertFalse(calendar.hasOverlap(1, at(5), at(10)));
+        assertFalse(calendar.hasOverlap(2, at(15), at(16)));
+    }
+
+    @Test
+    void findFreeIntervals() {
+        assertEquals(List.of(
+                new TimeInterval(at(5), at(10)),
+                new TimeInterval(at(20), at(30)),
+                new TimeInterval(at(40), at(50))
+        ), calendar.findFreeIntervals(1, at(3), at(50)));
+
+        assertEquals(List.of(), calendar.findFreeIntervals(1, at(12), at(18)));
+        assertEquals(List.of(new TimeInterval(at(0), at(50))), calendar.findFreeIntervals(2, at(0), at(50)));
+    }
+
+    @Test
+    void removeFreesInterval() {
+        calendar.remove(1, at(10), at(20));
+
+        assertFalse(calendar.hasOverlap(1, at(15), at(16)));
+        assertEquals(List.of(new TimeInterval(at(5), at(30))), calendar.findFreeIntervals(1, at(5), at(30)));
+    }
+
+    @Test
+    void pruneDropsEndedIntervals() {
+        BookingRepository repository = mock(BookingRepository.class);
+        when(repository.findIntervalsAfterId(any(), any(), anyLong(), any())).thenReturn(List.of());
+        BookingCalendar built = new BookingCalendar(repository);
+        built.rebuild();
+        Instant now = Instant.now();
+        built.add(1, now.minusSeconds(200), now.minusSeconds(100));
+        built.add(1, now.minusSeconds(50), now.plusSeconds(50));
+        built.add(2, now.minusSeconds(200), now.minusSeconds(100));
+
+        built.prune();
+
+        assertFalse(built.covers(now.minusSeconds(1)));
+        assertTrue(built.covers(Instant.now()));
+        assertTrue(built.hasOverlap(1, Instant.now(), Instant.now().plusSeconds(10)));
+        assertFalse(built.hasOverlap(1, now.minusSeconds(150), now.minusSeconds(140)));
+        assertFalse(built.hasOverlap(2, now.minusSeconds(150), now.minusSeconds(140)));
+    }
+
+    @Test
+    void rebuildSkipsBookingRemovedAfterRead() {
+        // Отклонение зафиксировано после чтения пачки, но до её добавления в календарь
+        BookingRepository repository = mock(BookingRepository.class);
+        BookingCalendar built = new BookingCalendar(repository);
+        when(repository.findIntervalsAfterId(any(), any(), anyLong(), any())).thenAnswer(invocation -> {
+            built.remove(1, at(10), at(20));
+            return List.of(interval(1, 1, at(10), at(20)), interval(2, 1, at(30), at(40)));
+        });
+
+        built.rebuild();
+
+        assertFalse(built.hasOverlap(1, at(15), at(16)));
+        assertTrue(built.hasOverlap(1, at(35), at(36)));
+    }
+
+    @Test
+    void rebuildDoesNotDuplicateBookingApprovedDuringRebuild() {
+        BookingRepository repository = mock(BookingRepository.class);
+        BookingCalendar built = new BookingCalendar(repository);
+        when(repository.findIntervalsAfterId(any(), any(), anyLong(), any())).thenAnswer(invocation -> {
+            built.add(1, at(10), at(20));
+            return List.of(interval(1, 1, at(10), at(20)));
+        });
+        built.rebuild();
+
+        built.remove(1, at(10), at(20));
+
+        assertFalse(built.hasOverlap(1, at(15), at(16)));
+    }
+
+    private static BookingInterval interval(long id, long itemId, Instant start, Instant end) {
+        BookingInterval interval = mock(BookingInterval.class);
+        when(interval.getId()).thenReturn(id);
+        when(interval.getItemId()).thenReturn(itemId);
+        when(interval.getStartDate()).thenReturn(start);
+        when(interval.getEndDate()).thenReturn(end);
+        return interval;
+    }
+
+    private static Instant at(long minutes) {
+        return T0.plusSeconds(minutes * 60);
+    }
+}
@@ -6,11 +6,17 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.dto.BookingApproveAllDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.common.PageCursor;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserService;
 
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
@@ -18,15 +24,28 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.matchesPattern;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -38,6 +57,9 @@ class BookingControllerTest {
     @MockBean
     private BookingService bookingService;
 
+    @MockBean
+    private UserService userService;
+
     @Autowired
     private MockMvc mvc;
 
@@ -80,8 +102,8 @@ class BookingControllerTest {
 
     @Test
     void findByBookerIdAndState() throws Exception {
-        when(bookingService.findByBookerIdAndState(anyLong(), any(BookingStateFilter.class)))
-                .thenReturn(List.of(booking));
+        when(bookingService.findByBookerIdAndState(anyLong(), any(BookingStateFilter.class), isNull(), anyInt()))
+                .thenReturn(Window.from(List.of(booking), index -> ScrollPosition.keyset()));
 
         mvc.perform(get(URI_PATH)
                         .header("X-Sharer-User-Id", booking.getBooker().getId())
@@ -89,25 +111,54 @@ class BookingControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id", is(booking.getId()), Long.class));
+                .andExpect(jsonPath("$[0].id", is(booking.getId()), Long.class))
+                .andExpect(header().doesNotExist(PageCursor.HEADER));
+
+        verify(bookingService, times(1)).findByBookerIdAndState(1, BookingStateFilter.ALL, null, 100);
+    }
+
+    @Test
+    void exportByOwnerId() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Booking> action = invocation.getArgument(1);
+            action.accept(booking);
+            action.accept(booking);
+            return null;
+        }).when(bookingService).exportByOwnerId(anyLong(), any());
+
+        MvcResult result = mvc.perform(get(URI_PATH + "/owner/export")
+                        .header("X-Sharer-User-Id", user.getId()))
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\"id\":" + booking.getId())))
+                .andExpect(content().string(matchesPattern("(?s)\\{[^\\n]*}\\n\\{[^\\n]*}\\n")));
 
-        verify(bookingService, times(1)).findByBookerIdAndState(1, BookingStateFilter.ALL);
+        verify(userService, times(1)).checkForExists(1);
+        verify(bookingService, times(1)).exportByOwnerId(eq(1L), any());
     }
 
     @Test
     void findByOwnerIdAndState() throws Exception {
-        when(bookingService.findByOwnerIdAndState(anyLong(), any(BookingStateFilter.class)))
-                .thenReturn(List.of(booking));
+        PageCursor cursor = new PageCursor(Instant.now(), 5L);
+        when(bookingService.findByOwnerIdAndState(anyLong(), any(BookingStateFilter.class), any(PageCursor.class), anyInt()))
+                .thenReturn(Window.from(List.of(booking), index -> ScrollPosition.keyset(), true));
 
         mvc.perform(get(URI_PATH + "/owner")
                         .header("X-Sharer-User-Id", booking.getBooker().getId())
+                        .param("cursor", cursor.encode())
+                        .param("size", "1")
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id", is(booking.getId()), Long.class));
+                .andExpect(jsonPath("$[0].id", is(booking.getId()), Long.class))
+                .andExpect(header().string(PageCursor.HEADER,
+                        new PageCursor(booking.getStart(), booking.getId()).encode()));
 
-        verify(bookingService, times(1)).findByOwnerIdAndState(1, BookingStateFilter.ALL);
+        verify(bookingService, times(1)).findByOwnerIdAndState(1, BookingStateFilter.ALL, cursor, 1);
     }
 
     @Test
@@ -153,4 +204,31 @@ class BookingControllerTest {
                 booking.getStart().truncatedTo(ChronoUnit.SECONDS),
                 booking.getEnd().truncatedTo(ChronoUnit.SECONDS));
     }
-}
\ No newline at end of file
+
+    @Test
+    void approveAll() throws Exception {
+        Map<Long, BookingApproveResult> results = new LinkedHashMap<>();
+        results.put(1L, BookingApproveResult.APPROVED);
+        results.put(2L, BookingApproveResult.CONFLICT);
+        when(bookingService.approveAll(anyLong(), anyList(), anyBoolean()))
+                .thenReturn(results);
+
+        BookingApproveAllDto approveDto = new BookingApproveAllDto();
+        approveDto.setIds(List.of(1L, 2L));
+        approveDto.setApproved(true);
+
+        mvc.perform(patch(URI_PATH + "/approve")
+                        .header("X-Sharer-User-Id", user.getId())
+                        .content(mapper.writeValueAsString(approveDto))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(1L), Long.class))
+                .andExpect(jsonPath("$[0].result", is("APPROVED")))
+                .andExpect(jsonPath("$[1].id", is(2L), Long.class))
+                .andExpect(jsonPath("$[1].result", is("CONFLICT")));
+
+        verify(bookingService, times(1)).approveAll(user.getId(), List.of(1L, 2L), true);
+    }
+}
@@ -0,0 +1,142 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Transactional
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@SpringBootTest
+class BookingRepositoryTest {
+    private final BookingRepository bookingRepository;
+    private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void findByItemOwnerIdLoadsPageInOneStatement() {
+        User owner = persistUser("owner@mail.com");
+        Instant start = Instant.now().plusSeconds(100);
+        for (int i = 0; i < 3; i++) {
+            Item item = persistItem(owner);
+            User booker = persistUser("booker" + i + "@mail.com");
+            persistBooking(item, booker, start.plusSeconds(i));
+            persistBooking(item, booker, start.minusSeconds(i + 1000));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            Window<Booking> bookings = bookingRepository.findByItem_Owner_IdOrderByStartDescIdDesc(
+                    owner.getId(), ScrollPosition.keyset(), Limit.of(10));
+            List<BookingDto> dtos = BookingMapper.toDto(bookings);
+
+            assertEquals(6, dtos.size());
+            assertEquals(1, statistics.getPrepareStatementCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    void findLastAndNextForItemLoadsBothInOneStatement() {
+        User owner = persistUser("owner@mail.com");
+        User booker = persistUser("booker@mail.com");
+        Item item = persistItem(owner);
+        Instant now = Instant.now();
+        persistBooking(item, booker, now.minusSeconds(1000));
+        Booking last = persistBooking(item, booker, now.minusSeconds(50));
+        Booking next = persistBooking(item, booker, now.plusSeconds(100));
+        persistBooking(item, booker, now.plusSeconds(1000));
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            List<BookingDto> dtos = BookingMapper.toDto(bookingRepository.findLastAndNextForItem(item.getId(), now));
+
+            assertEquals(2, dtos.size());
+            assertEquals(Set.of(last.getId(), next.getId()),
+                    dtos.stream().map(BookingDto::getId).collect(Collectors.toSet()));
+            assertEquals(1, statistics.getPrepareStatementCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    void findLastAndNextIdsForItemsPicksOneOfEachPerItem() {
+        User owner = persistUser("owner@mail.com");
+        User booker = persistUser("booker@mail.com");
+        Item first = persistItem(owner);
+        Item second = persistItem(owner);
+        Item third = persistItem(owner);
+        Instant now = Instant.now();
+        persistBooking(first, booker, now.minusSeconds(1000));
+        Booking firstLast = persistBooking(first, booker, now.minusSeconds(50));
+        Booking firstNext = persistBooking(first, booker, now.plusSeconds(100));
+        persistBooking(first, booker, now.plusSeconds(1000));
+        Booking secondNext = persistBooking(second, booker, now.plusSeconds(200));
+        persistBooking(third, booker, now.minusSeconds(1000));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> ids = bookingRepository.findLastAndNextIdsForItems(
+                List.of(first.getId(), second.getId(), third.getId()), now);
+
+        assertEquals(Set.of(firstLast.getId(), firstNext.getId(), secondNext.getId()), Set.copyOf(ids));
+        assertEquals(3, ids.size());
+    }
+
+    private User persistUser(String email) {
+        User user = new User();
+        user.setName("John Doe");
+        user.setEmail(email);
+        entityManager.persist(user);
+        return user;
+    }
+
+    private Item persistItem(User owner) {
+        Item item = new Item();
+        item.setName("Hummer");
+        item.setDescription("Good Hummer");
+        item.setIsAvailable(true);
+        item.setOwner(owner);
+        entityManager.persist(item);
+        return item;
+    }
+
+    private Booking persistBooking(Item item, User booker, Instant start) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(start.plusSeconds(100));
+        booking.setStatus(BookingState.WAITING);
+        entityManager.persist(booking);
+        return booking;
+    }
+}
@@ -1,19 +1,37 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Window;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.common.PageCursor;
+import ru.practicum.shareit.common.exception.DataConflictException;
+import ru.practicum.shareit.common.exception.DataNotFoundException;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemService;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserService;
 
+import java.sql.SQLException;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Transactional
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
@@ -22,6 +40,8 @@ class BookingServiceImplTest {
     private final BookingService bookingService;
     private final ItemService itemService;
     private final UserService userService;
+    private final EntityManager entityManager;
+    private final BookingCalendar bookingCalendar;
 
     @Test
     void create() {
@@ -38,10 +58,198 @@ class BookingServiceImplTest {
         assertNotNull(result);
     }
 
+    @Test
+    void findByBookerIdAndStateByPages() {
+        User user = userService.create(makeTestUser());
+        Item item = itemService.create(user.getId(), makeTestItem(), Optional.empty());
+        Instant start = Instant.now().plusSeconds(100).truncatedTo(ChronoUnit.SECONDS);
+        Booking first = bookingService.create(user.getId(), item.getId(), start, start.plusSeconds(100));
+        Booking second = bookingService.create(user.getId(), item.getId(), start, start.plusSeconds(200));
+        Booking third = bookingService.create(user.getId(), item.getId(), start.plusSeconds(50), start.plusSeconds(100));
+
+        Window<Booking> firstPage = bookingService.findByBookerIdAndState(user.getId(), BookingStateFilter.ALL, null, 2);
+
+        assertEquals(2, firstPage.size());
+        assertTrue(firstPage.hasNext());
+        assertEquals(third.getId(), firstPage.getContent().get(0).getId());
+        assertEquals(second.getId(), firstPage.getContent().get(1).getId());
+
+        Booking last = firstPage.getContent().getLast();
+        PageCursor cursor = new PageCursor(last.getStart(), last.getId());
+        Window<Booking> secondPage = bookingService.findByBookerIdAndState(user.getId(), BookingStateFilter.ALL, cursor, 2);
+
+        assertEquals(1, secondPage.size());
+        assertFalse(secondPage.hasNext());
+        assertEquals(first.getId(), secondPage.getContent().getFirst().getId());
+    }
+
+    @Test
+    void findByOwnerIdAndStateRejectsUnboundedPageSize() {
+        User user = userService.create(makeTestUser());
+
+        assertThrows(ValidationException.class, () -> bookingService.findByOwnerIdAndState(
+                user.getId(), BookingStateFilter.ALL, null, PageCursor.MAX_SIZE + 1));
+        assertThrows(ValidationException.class, () -> bookingService.findByBookerIdAndState(
+                user.getId(), BookingStateFilter.ALL, null, 0));
+    }
+
+    @Test
+    void exportByOwnerId() {
+        User owner = userService.create(makeTestUser());
+        User other = userService.create(makeOtherUser());
+        Item item = itemService.create(owner.getId(), makeTestItem(), Optional.empty());
+        Item otherItem = itemService.create(other.getId(), makeTestItem(), Optional.empty());
+        Instant start = Instant.now().plusSeconds(100);
+        Booking first = bookingService.create(other.getId(), item.getId(), start, start.plusSeconds(100));
+        Booking second = bookingService.create(other.getId(), item.getId(), start.plusSeconds(200), start.plusSeconds(300));
+        bookingService.create(owner.getId(), otherItem.getId(), start, start.plusSeconds(100));
+
+        List<Long> ids = new ArrayList<>();
+        bookingService.exportByOwnerId(owner.getId(), booking -> ids.add(booking.getId()));
+
+        assertEquals(List.of(second.getId(), first.getId()), ids);
+    }
+
     @Test
     void approve() {
     }
 
+    @Test
+    void createOverlappingApprovedBooking() {
+        User user = userService.create(makeTestUser());
+        Item item = itemService.create(user.getId(), makeTestItem(), Optional.empty());
+        Instant start = Instant.now().plusSeconds(100);
+        Booking booking = bookingService.create(user.getId(), item.getId(), start, start.plusSeconds(100));
+        bookingService.approve(booking.getId(), user.getId(), true);
+
+        assertThrows(DataConflictException.class,
+                () -> bookingService.create(user.getId(), item.getId(), start.plusSeconds(50), start.plusSeconds(150)));
+        assertNotNull(bookingService.create(user.getId(), item.getId(), start.plusSeconds(100), start.plusSeconds(200)));
+    }
+
+    @Test
+    void approveOverlappingBooking() {
+        User user = userService.create(makeTestUser());
+        Item item = itemService.create(user.getId(), makeTestItem(), Optional.empty());
+        Instant start = Instant.now().plusSeconds(100);
+        Booking first = bookingService.create(user.getId(), item.getId(), start, start.plusSeconds(100));
+        Booking second = bookingService.create(user.getId(), item.getId(), start.minusSeconds(50), start.plusSeconds(50));
+        bookingService.approve(first.getId(), user.getId(), true);
+
+        assertThrows(DataConflictException.class,
+                () -> bookingService.approve(second.getId(), user.getId(), true));
+        assertEquals(BookingState.REJECTED, bookingService.approve(second.getId(), user.getId(), false).getStatus());
+    }
+
+    @Test
+    void approveAll() {
+        User owner = userService.create(makeTestUser());
+        User other = userService.create(makeOtherUser());
+        Item item = itemService.create(owner.getId(), makeTestItem(), Optional.empty());
+        Item otherItem = itemService.create(other.getId(), makeTestItem(), Optional.empty());
+        Instant start = Instant.now().plusSeconds(100);
+        Booking first = bookingService.create(other.getId(), item.getId(), start, start.plusSeconds(100));
+        Booking overlapping = bookingService.create(other.getId(), item.getId(), start.plusSeconds(50), start.plusSeconds(150));
+        Booking later = bookingService.create(other.getId(), item.getId(), start.plusSeconds(200), start.plusSeconds(300));
+        Booking foreign = bookingService.create(owner.getId(), otherItem.getId(), start, start.plusSeconds(100));
+        long missingId = later.getId() + 1000;
+
+        Map<Long, BookingApproveResult> results = bookingService.approveAll(owner.getId(),
+                List.of(first.getId(), overlapping.getId(), later.getId(), foreign.getId(), missingId), true);
+
+        assertEquals(List.of(first.getId(), overlapping.getId(), later.getId(), foreign.getId(), missingId),
+                List.copyOf(results.keySet()));
+        assertEquals(BookingApproveResult.APPROVED, results.get(first.getId()));
+        assertEquals(BookingApproveResult.CONFLICT, results.get(overlapping.getId()));
+        assertEquals(BookingApproveResult.APPROVED, results.get(later.getId()));
+        assertEquals(BookingApproveResult.FORBIDDEN, results.get(foreign.getId()));
+        assertEquals(BookingApproveResult.NOT_FOUND, results.get(missingId));
+
+        entityManager.clear();
+        Map<Long, BookingApproveResult> repeated = bookingService.approveAll(owner.getId(),
+                List.of(first.getId(), overlapping.getId()), false);
+
+        assertEquals(BookingApproveResult.NOT_WAITING, repeated.get(first.getId()));
+        assertEquals(BookingApproveResult.REJECTED, repeated.get(overlapping.getId()));
+    }
+
+    @Test
+    void approveAllRejectsInvalidIds() {
+        User owner = userService.create(makeTestUser());
+        List<Long> withNull = new ArrayList<>(List.of(1L));
+        withNull.add(null);
+        List<Long> tooMany = LongStream.rangeClosed(1, BookingServiceImpl.APPROVE_ALL_MAX_SIZE + 1).boxed().toList();
+
+        assertThrows(ValidationException.class, () -> bookingService.approveAll(owner.getId(), List.of(1L, 2L, 1L), true));
+        assertThrows(ValidationException.class, () -> bookingService.approveAll(owner.getId(), withNull, true));
+        assertThrows(ValidationException.class, () -> bookingService.approveAll(owner.getId(), List.of(), true));
+        assertThrows(ValidationException.class, () -> bookingService.approveAll(owner.getId(), tooMany, true));
+    }
+
+    @Test
+    void findFreeIntervals() {
+        User user = userService.create(makeTestUser());
+        Item item = itemService.create(user.getId(), makeTestItem(), Optional.empty());
+        Instant start = Instant.now().plusSeconds(100).truncatedTo(ChronoUnit.SECONDS);
+        Booking approved = bookingService.create(user.getId(), item.getId(), start, start.plusSeconds(100));
+        bookingService.create(user.getId(), item.getId(), start.plusSeconds(200), start.plusSeconds(300));
+        bookingService.approve(approved.getId(), user.getId(), true);
+
+        assertEquals(List.of(
+                new TimeInterval(start.minusSeconds(50), start),
+                new TimeInterval(start.plusSeconds(100), start.plusSeconds(400))
+        ), bookingService.findFreeIntervals(item.getId(), start.minusSeconds(50), start.plusSeconds(400)));
+        assertEquals(List.of(), bookingService.findFreeIntervals(item.getId(), start.plusSeconds(10), start.plusSeconds(20)));
+    }
+
+    @Test
+    void findFreeIntervalsBeforeCalendarHorizon() {
+        User user = userService.create(makeTestUser());
+        Item item = itemService.create(user.getId(), makeTestItem(), Optional.empty());
+        Instant start = Instant.now().minusSeconds(300).truncatedTo(ChronoUnit.SECONDS);
+        Booking past = bookingService.create(user.getId(), item.getId(), start, start.plusSeconds(100));
+        bookingService.approve(past.getId(), user.getId(), true);
+        bookingCalendar.prune();
+
+        assertFalse(bookingCalendar.covers(start));
+        assertEquals(List.of(
+                new TimeInterval(start.minusSeconds(50), start),
+                new TimeInterval(start.plusSeconds(100), start.plusSeconds(150))
+        ), bookingService.findFreeIntervals(item.getId(), start.minusSeconds(50), start.plusSeconds(150)));
+    }
+
+    @Test
+    void findFreeIntervalsValidatesArguments() {
+        User user = userService.create(makeTestUser());
+        Item item = itemService.create(user.getId(), makeTestItem(), Optional.empty());
+        Instant start = Instant.now();
+
+        assertThrows(ValidationException.class, () -> bookingService.findFreeIntervals(item.getId(), start, start));
+        assertThrows(DataNotFoundException.class,
+                () -> bookingService.findFreeIntervals(item.getId() + 1000, start, start.plusSeconds(100)));
+    }
+
+    @Test
+    void onlyOverlapConstraintIsTranslatedToConflict() {
+        SQLException overlap = new SQLException(
+                "ERROR: conflicting key value violates exclusion constraint \"bookings_no_overlap\"", "23P01");
+        SQLException foreignKey = new SQLException(
+                "ERROR: insert or update on table \"bookings\" violates foreign key constraint", "23503");
+
+        assertTrue(BookingServiceImpl.isOverlapViolation(new DataIntegrityViolationException("overlap",
+                new ConstraintViolationException("overlap", overlap, "bookings_no_overlap"))));
+        assertTrue(BookingServiceImpl.isOverlapViolation(new DataIntegrityViolationException("overlap", overlap)));
+        assertFalse(BookingServiceImpl.isOverlapViolation(new DataIntegrityViolationException("fk",
+                new ConstraintViolationException("fk", foreignKey, "bookings_item_id_fkey"))));
+    }
+
+    private static User makeOtherUser() {
+        User user = new User();
+        user.setName("Jane Doe");
+        user.setEmail("jane.doe@mail.com");
+        return user;
+    }
+
     private static User makeTestUser() {
         User user = new User();
         user.setName("John Doe");
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.common;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.common.exception.DataNotFoundException;
+import ru.practicum.shareit.user.UserService;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureObservability
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@SpringBootTest
+class ServiceMetricsAspectTest {
+    private final UserService userService;
+    private final MeterRegistry registry;
+    private final MockMvc mvc;
+
+    @Test
+    void recordsCallsAndErrorsByExceptionType() throws Exception {
+        double errors = errorCount();
+        long calls = callCount();
+
+        userService.findAll();
+        userService.findAll();
+        assertThrows(DataNotFoundException.class, () -> userService.checkForExists(-1));
+        assertThrows(DataNotFoundException.class, () -> userService.checkForExists(-1));
+
+        assertEquals(errors + 2, errorCount());
+        assertEquals(calls + 2, callCount());
+        assertEquals(1, registry.find(ServiceMetricsAspect.CALLS_METRIC)
+                .tags("service", "UserServiceImpl", "method", "findAll").timers().size());
+
+        mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("shareit_service_calls_seconds_bucket")))
+                .andExpect(content().string(containsString("exception=\"DataNotFoundException\"")));
+    }
+
+    private double errorCount() {
+        Counter counter = registry.find(ServiceMetricsAspect.ERRORS_METRIC)
+                .tags("service", "UserServiceImpl", "method", "checkForExists", "exception", "DataNotFoundException")
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private long callCount() {
+        return registry.find(ServiceMetricsAspect.CALLS_METRIC)
+                .tags("service", "UserServiceImpl", "method", "findAll")
+                .timers()
+                .stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+}
@@ -0,0 +1,162 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.CommentMapper;
+import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.item.comment.CommentService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Сравнение задержки карточки вещи: прежние три запроса против одного.
+// Запуск: mvn test -pl server -Dtest=ItemCardBenchmarkTest -Dbenchmark=true,
+// для PostgreSQL дополнительно SPRING_SQL_INIT_PLATFORM=postgres и SPRING_DATASOURCE_* в окружении
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@SpringBootTest
+class ItemCardBenchmarkTest {
+    private static final int COMMENTS = 20;
+    private static final int BOOKINGS = 50;
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 10_000;
+
+    private final ItemService itemService;
+    private final ItemRepository itemRepository;
+    private final UserService userService;
+    private final CommentService commentService;
+    private final CommentRepository commentRepository;
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    private Long ownerId;
+    private Long bookerId;
+    private Long itemId;
+
+    @AfterEach
+    void tearDown() {
+        if (itemId != null) {
+            commentRepository.deleteAllInBatch(commentRepository.findByItem_IdIn(List.of(itemId)));
+            bookingRepository.deleteAllInBatch(bookingRepository.findAll().stream()
+                    .filter(booking -> booking.getItem().getId().equals(itemId))
+                    .toList());
+            itemRepository.deleteById(itemId);
+        }
+        if (bookerId != null) {
+            userService.delete(bookerId);
+        }
+        if (ownerId != null) {
+            userService.delete(ownerId);
+        }
+    }
+
+    @Test
+    void oneQueryCardAgainstThreeQueries() throws JsonProcessingException {
+        seed();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        LongFunction<ItemDto> threeQueries = id -> transaction.execute(status -> findCardWithThreeQueries(id));
+        LongFunction<ItemDto> oneQuery = id -> transaction.execute(status -> itemService.findByIdWithCommentsAndBookings(id));
+
+        // BaseDto не переопределяет equals, поэтому карточки сравниваются в JSON
+        assertEquals(objectMapper.writeValueAsString(threeQueries.apply(itemId)),
+                objectMapper.writeValueAsString(oneQuery.apply(itemId)));
+
+        measure(threeQueries, WARMUP);
+        measure(oneQuery, WARMUP);
+        long[] three = measure(threeQueries, ITERATIONS);
+        long[] one = measure(oneQuery, ITERATIONS);
+        report("три запроса", three);
+        report("один запрос", one);
+    }
+
+    // Прежняя сборка карточки: вещь, комментарии и брони отдельными запросами
+    private ItemDto findCardWithThreeQueries(long id) {
+        Item item = itemService.findById(id);
+        List<Comment> comments = commentService.findByItemIds(List.of(id));
+
+        Instant now = Instant.now();
+        BookingDto lastBookingDto = null;
+        BookingDto nextBookingDto = null;
+        for (Booking booking : bookingService.findLastAndNextForItem(id, now)) {
+            if (booking.getStart().isAfter(now)) {
+                nextBookingDto = BookingMapper.toDto(booking);
+            } else {
+                lastBookingDto = BookingMapper.toDto(booking);
+            }
+        }
+        return ItemMapper.toDto(item, CommentMapper.toDto(comments), lastBookingDto, nextBookingDto);
+    }
+
+    private long[] measure(LongFunction<ItemDto> card, int iterations) {
+        long[] latencies = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            card.apply(itemId);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static void report(String name, long[] latencies) {
+        System.out.printf("%s: mean=%.1fus p50=%.1fus p99=%.1fus%n", name,
+                Arrays.stream(latencies).average().orElse(0) / 1000,
+                latencies[latencies.length / 2] / 1000.0,
+                latencies[latencies.length * 99 / 100] / 1000.0);
+    }
+
+    private void seed() {
+        ownerId = userService.create(makeUser("benchmark.owner@mail.com")).getId();
+        bookerId = userService.create(makeUser("benchmark.booker@mail.com")).getId();
+        Item item = new Item();
+        item.setName("Hummer");
+        item.setDescription("Good Hummer");
+        item.setIsAvailable(true);
+        itemId = itemService.create(ownerId, item, Optional.empty()).getId();
+
+        // Брони идут подряд по дню: половина в прошлом, одна текущая, остальные в будущем
+        Instant start = Instant.now().truncatedTo(ChronoUnit.SECONDS).minus(BOOKINGS / 2, ChronoUnit.DAYS).plusSeconds(60);
+        for (int i = 0; i < BOOKINGS; i++) {
+            Instant bookingStart = start.plus(i, ChronoUnit.DAYS);
+            bookingService.create(bookerId, itemId, bookingStart, bookingStart.plus(1, ChronoUnit.DAYS).minusSeconds(1));
+        }
+        for (int i = 0; i < COMMENTS; i++) {
+            Comment comment = new Comment();
+            comment.setText("Комментарий " + i);
+            commentService.create(itemId, bookerId, comment);
+        }
+    }
+
+    private static User makeUser(String email) {
+        User user = new User();
+        user.setName("John Doe");
+        user.setEmail(email);
+        return user;
+    }
+}
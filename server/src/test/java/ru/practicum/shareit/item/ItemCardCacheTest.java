@@ -0,0 +1,60 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemCardCacheTest {
+    private ItemCardCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ItemCardCache("maximumSize=100", Duration.ofMinutes(1));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void versionWithoutBoundaryLivesForTtl() throws InterruptedException {
+        ItemCardVersion version = new ItemCardVersion(1L, 0L, 0L, null);
+
+        cache.getVersion(1L, id -> load(version));
+        Thread.sleep(300);
+        cache.getVersion(1L, id -> load(version));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void versionExpiresAtNextBoundary() throws InterruptedException {
+        ItemCardVersion version = new ItemCardVersion(1L, 0L, 0L, Instant.now().plusMillis(200));
+
+        cache.getVersion(1L, id -> load(version));
+        cache.getVersion(1L, id -> load(version));
+        assertEquals(1, loads.get());
+
+        Thread.sleep(300);
+        cache.getVersion(1L, id -> load(version));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void versionWithPassedBoundaryIsNotCached() {
+        ItemCardVersion version = new ItemCardVersion(1L, 0L, 0L, Instant.now().minusMillis(1));
+
+        cache.getVersion(1L, id -> load(version));
+        cache.getVersion(1L, id -> load(version));
+
+        assertEquals(2, loads.get());
+    }
+
+    private ItemCardVersion load(ItemCardVersion version) {
+        loads.incrementAndGet();
+        return version;
+    }
+}
@@ -0,0 +1,134 @@
+package ru.practicum.shareit.item;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.CommentService;
+import ru.practicum.shareit.user.User;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.mockStatic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Transactional
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@SpringBootTest
+class ItemCardETagTest {
+    private final MockMvc mvc;
+    private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ItemCardCache itemCardCache;
+    private final CommentService commentService;
+
+    @Test
+    void notModifiedSkipsCommentsQueryAndMapper() throws Exception {
+        User owner = persistUser("owner@mail.com");
+        User booker = persistUser("booker@mail.com");
+        Item item = persistItem(owner);
+        persistComment(item, booker);
+        persistBooking(item, booker, Instant.now().plusSeconds(100));
+        entityManager.flush();
+        entityManager.clear();
+
+        String eTag = mvc.perform(get("/items/" + item.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        // Как после истечения TTL: версия карточки снова читается из БД
+        itemCardCache.evict(item.getId());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try (MockedStatic<ItemMapper> itemMapper = mockStatic(ItemMapper.class)) {
+            mvc.perform(get("/items/" + item.getId())
+                            .header("If-None-Match", eTag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+
+            itemMapper.verifyNoInteractions();
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals(0, statistics.getEntityLoadCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    void newCommentChangesETag() throws Exception {
+        User owner = persistUser("owner@mail.com");
+        User author = persistUser("author@mail.com");
+        Item item = persistItem(owner);
+        persistBooking(item, author, Instant.now().minusSeconds(200));
+        entityManager.flush();
+
+        String eTag = mvc.perform(get("/items/" + item.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        Comment comment = new Comment();
+        comment.setText("Good");
+        commentService.create(item.getId(), author.getId(), comment);
+
+        String newETag = mvc.perform(get("/items/" + item.getId())
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        assertNotEquals(eTag, newETag);
+    }
+
+    private User persistUser(String email) {
+        User user = new User();
+        user.setName("John Doe");
+        user.setEmail(email);
+        entityManager.persist(user);
+        return user;
+    }
+
+    private Item persistItem(User owner) {
+        Item item = new Item();
+        item.setName("Hummer");
+        item.setDescription("Good Hummer");
+        item.setIsAvailable(true);
+        item.setOwner(owner);
+        entityManager.persist(item);
+        return item;
+    }
+
+    private void persistComment(Item item, User author) {
+        Comment comment = new Comment();
+        comment.setText("Good");
+        comment.setItem(item);
+        comment.setAuthor(author);
+        comment.setCreatedAt(Instant.now());
+        entityManager.persist(comment);
+    }
+
+    private void persistBooking(Item item, User booker, Instant start) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(start.plusSeconds(100));
+        booking.setStatus(BookingState.APPROVED);
+        entityManager.persist(booking);
+    }
+}
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.item;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+// Данные фиксируются в БД, поэтому здесь нет @Transactional и всё созданное удаляется после теста.
+// TTL увеличен, чтобы вся волна запросов гарантированно укладывалась в его пределы
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@SpringBootTest(properties = "shareit.item-card-cache.ttl=1m")
+class ItemCardSingleFlightTest {
+    private static final int THREADS = 32;
+
+    private final ItemService itemService;
+    private final ItemRepository itemRepository;
+    private final UserService userService;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> itemIds = new ArrayList<>();
+    private Long ownerId;
+
+    @AfterEach
+    void tearDown() {
+        itemRepository.deleteAllByIdInBatch(itemIds);
+        if (ownerId != null) {
+            userService.delete(ownerId);
+        }
+    }
+
+    @Test
+    void concurrentReadsShareOneQuerySet() throws Exception {
+        User owner = new User();
+        owner.setName("John Doe");
+        owner.setEmail("single.flight.owner@mail.com");
+        ownerId = userService.create(owner).getId();
+        long warmItemId = createItem();
+        long hotItemId = createItem();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            statistics.clear();
+            readCard(warmItemId);
+            long querySet = statistics.getPrepareStatementCount();
+
+            CountDownLatch start = new CountDownLatch(1);
+            List<Callable<ItemDto>> reads = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                reads.add(() -> {
+                    start.await();
+                    return readCard(hotItemId);
+                });
+            }
+            statistics.clear();
+            List<Future<ItemDto>> futures = new ArrayList<>();
+            reads.forEach(read -> futures.add(executor.submit(read)));
+            start.countDown();
+
+            ItemDto first = futures.getFirst().get();
+            for (Future<ItemDto> future : futures) {
+                assertSame(first, future.get());
+            }
+            assertEquals(querySet, statistics.getPrepareStatementCount());
+        } finally {
+            executor.shutdown();
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    private ItemDto readCard(long itemId) {
+        return itemService.findCard(itemService.findCardVersion(itemId));
+    }
+
+    private long createItem() {
+        Item item = new Item();
+        item.setName("Hummer");
+        item.setDescription("Good Hummer");
+        item.setIsAvailable(true);
+        long id = itemService.create(ownerId, item, Optional.empty()).getId();
+        itemIds.add(id);
+        return id;
+    }
+}
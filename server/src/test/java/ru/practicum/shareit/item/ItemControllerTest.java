@@ -1,15 +1,20 @@
 package ru.practicum.shareit.item;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ValidationException;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.TimeInterval;
+import ru.practicum.shareit.common.exception.DataNotFoundException;
 import ru.practicum.shareit.item.comment.Comment;
 import ru.practicum.shareit.item.comment.CommentMapper;
 import ru.practicum.shareit.item.comment.CommentService;
@@ -20,6 +25,8 @@ import ru.practicum.shareit.user.User;
 
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,6 +40,8 @@ import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -46,6 +55,9 @@ class ItemControllerTest {
     @MockBean
     private CommentService commentService;
 
+    @MockBean
+    private BookingService bookingService;
+
     @Autowired
     private MockMvc mvc;
 
@@ -105,7 +117,10 @@ class ItemControllerTest {
                 BookingMapper.toDto(booking)
         );
 
-        when(itemService.findByIdWithCommentsAndBookings(anyLong()))
+        ItemCardVersion version = makeCardVersion(0);
+        when(itemService.findCardVersion(anyLong()))
+                .thenReturn(version);
+        when(itemService.findCard(any()))
                 .thenReturn(itemWithCommentsAndBookingsDto);
 
         mvc.perform(get(URI_PATH + "/" + item.getId())
@@ -117,9 +132,39 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.comments", is(notNullValue())))
                 .andExpect(jsonPath("$.comments[0].id", is(comment.getId()), Long.class))
                 .andExpect(jsonPath("$.lastBooking", is(anything())))
-                .andExpect(jsonPath("$.nextBooking.id", is(booking.getId()), Long.class));
+                .andExpect(jsonPath("$.nextBooking.id", is(booking.getId()), Long.class))
+                .andExpect(header().exists("ETag"));
 
-        verify(itemService, times(1)).findByIdWithCommentsAndBookings(1);
+        verify(itemService, times(1)).findCard(version);
+    }
+
+    @Test
+    void findByIdWithCommentsAndBookingsNotModified() throws Exception {
+        when(itemService.findCardVersion(anyLong()))
+                .thenReturn(makeCardVersion(0));
+
+        String eTag = mvc.perform(get(URI_PATH + "/" + item.getId())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(get(URI_PATH + "/" + item.getId())
+                        .header("If-None-Match", eTag)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(itemService, times(1)).findCard(any());
+
+        when(itemService.findCardVersion(anyLong()))
+                .thenReturn(makeCardVersion(1));
+
+        mvc.perform(get(URI_PATH + "/" + item.getId())
+                        .header("If-None-Match", eTag)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        verify(itemService, times(2)).findCard(any());
     }
 
     @Test
@@ -163,6 +208,24 @@ class ItemControllerTest {
         verify(itemService, times(1)).create(1, item, Optional.empty());
     }
 
+    @Test
+    void createAll() throws Exception {
+        when(itemService.createAll(anyLong(), any()))
+                .thenReturn(List.of(item));
+
+        mvc.perform(post(URI_PATH + "/batch")
+                        .header("X-Sharer-User-Id", user.getId())
+                        .content(mapper.writeValueAsString(List.of(itemDto)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(itemDto.getId()), Long.class))
+                .andExpect(jsonPath("$[0].name", is(itemDto.getName())));
+
+        verify(itemService, times(1)).createAll(1, List.of(itemDto));
+    }
+
     @Test
     void createComment() throws Exception {
         when(commentService.create(anyLong(), anyLong(), any()))
@@ -197,6 +260,82 @@ class ItemControllerTest {
         verify(itemService, times(1)).update(1, item);
     }
 
+    @Test
+    void updateConflict() throws Exception {
+        when(itemService.update(anyLong(), any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Item.class, item.getId()));
+
+        mvc.perform(patch(URI_PATH + "/" + itemDto.getId())
+                        .header("X-Sharer-User-Id", user.getId())
+                        .content(mapper.writeValueAsString(itemDto))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error", is(notNullValue())));
+    }
+
+    @Test
+    void findFreeIntervals() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime to = from.plusHours(10);
+        Instant fromInstant = from.atZone(ZoneId.systemDefault()).toInstant();
+        Instant toInstant = to.atZone(ZoneId.systemDefault()).toInstant();
+        when(bookingService.findFreeIntervals(anyLong(), any(), any()))
+                .thenReturn(List.of(new TimeInterval(fromInstant, fromInstant.plusSeconds(3600))));
+
+        mvc.perform(get(URI_PATH + "/" + item.getId() + "/availability")
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)))
+                .andExpect(jsonPath("$[0].start", is("2030-01-01T10:00:00")))
+                .andExpect(jsonPath("$[0].end", is("2030-01-01T11:00:00")));
+
+        verify(bookingService, times(1)).findFreeIntervals(item.getId(), fromInstant, toInstant);
+    }
+
+    @Test
+    void findFreeIntervalsWithWrongPeriod() throws Exception {
+        when(bookingService.findFreeIntervals(anyLong(), any(), any()))
+                .thenThrow(new ValidationException("Начало периода должно быть раньше его окончания"));
+
+        mvc.perform(get(URI_PATH + "/" + item.getId() + "/availability")
+                        .param("from", "2030-01-01T10:00:00")
+                        .param("to", "2030-01-01T10:00:00")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is(notNullValue())));
+
+        mvc.perform(get(URI_PATH + "/" + item.getId() + "/availability")
+                        .param("from", "2030-01-01T10:00:00")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        mvc.perform(get(URI_PATH + "/" + item.getId() + "/availability")
+                        .param("from", "tomorrow")
+                        .param("to", "2030-01-01T10:00:00")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findFreeIntervalsOfUnknownItem() throws Exception {
+        when(bookingService.findFreeIntervals(anyLong(), any(), any()))
+                .thenThrow(new DataNotFoundException("Вещь с id: 1 не найдена"));
+
+        mvc.perform(get(URI_PATH + "/" + item.getId() + "/availability")
+                        .param("from", "2030-01-01T10:00:00")
+                        .param("to", "2030-01-01T20:00:00")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    private static ItemCardVersion makeCardVersion(long cardVersion) {
+        return new ItemCardVersion(item.getId(), 0L, cardVersion, null);
+    }
+
     private static Comment createTestComment() {
         Comment comment = new Comment();
         comment.setId(1L);
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemSearchIndexTest {
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ItemSearchIndex(null, ItemSearchMode.INDEX);
+        index.put(1, "Дрель", "Простая дрель", true);
+        index.put(2, "Аккумуляторная дрель", "Дрель с аккумулятором", true);
+        index.put(3, "Отвертка", "Аккумуляторная отвертка", true);
+    }
+
+    @Test
+    void searchByPrefixIgnoringCase() {
+        assertArrayEquals(new long[]{1, 2}, index.search("дРелЬ"));
+        assertArrayEquals(new long[]{2, 3}, index.search("аккум"));
+    }
+
+    @Test
+    void searchRequiresAllTerms() {
+        assertArrayEquals(new long[]{2}, index.search("аккумуляторная дрель"));
+        assertArrayEquals(new long[0], index.search("отвертка дрель"));
+    }
+
+    @Test
+    void searchSkipsUnavailableItems() {
+        index.put(2, "Аккумуляторная дрель", "Дрель с аккумулятором", false);
+
+        assertArrayEquals(new long[]{1}, index.search("дрель"));
+
+        index.put(2, "Аккумуляторная дрель", "Дрель с аккумулятором", true);
+
+        assertArrayEquals(new long[]{1, 2}, index.search("дрель"));
+    }
+
+    @Test
+    void searchUsesUpdatedText() {
+        index.put(1, "Молоток", "Тяжелый молоток", true);
+
+        assertArrayEquals(new long[]{2}, index.search("дрель"));
+        assertArrayEquals(new long[]{1}, index.search("молот"));
+    }
+
+    @Test
+    void rebuildKeepsUpdatesMadeAfterBatchWasRead() {
+        ItemRepository repository = mock(ItemRepository.class);
+        ItemSearchIndex rebuilt = new ItemSearchIndex(repository, ItemSearchMode.INDEX);
+        // Вещь 1 переименована и проиндексирована уже после того, как перестроение прочитало старый текст
+        when(repository.findAvailableTextsAfterId(eq(0L), any())).thenAnswer(invocation -> {
+            List<ItemText> batch = List.of(text(1, "Дрель", "Простая дрель"), text(2, "Отвертка", "Крестовая"));
+            rebuilt.put(1, "Молоток", "Тяжелый молоток", true);
+            return batch;
+        });
+
+        rebuilt.rebuild();
+
+        assertArrayEquals(new long[0], rebuilt.search("дрель"));
+        assertArrayEquals(new long[]{1}, rebuilt.search("молот"));
+        assertArrayEquals(new long[]{2}, rebuilt.search("отвертка"));
+
+        rebuilt.put(2, "Отвертка", "Крестовая", false);
+
+        assertArrayEquals(new long[0], rebuilt.search("отвертка"));
+    }
+
+    private static ItemText text(long id, String name, String description) {
+        return new ItemText() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+        };
+    }
+}
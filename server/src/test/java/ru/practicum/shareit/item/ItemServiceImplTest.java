@@ -1,36 +1,68 @@
 package ru.practicum.shareit.item;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.common.exception.DataNotFoundException;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.comment.CommentService;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.dto.ItemWithCommentsAndBookingsDto;
 import ru.practicum.shareit.request.Request;
 import ru.practicum.shareit.request.RequestService;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserService;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @Transactional
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @SpringBootTest
+@SpyBean(ItemSearchIndex.class)
 class ItemServiceImplTest {
     private final ItemService itemService;
     private final UserService userService;
     private final RequestService requestService;
+    private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ItemRepository itemRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final PlatformTransactionManager transactionManager;
+    private final BookingService bookingService;
+    private final CommentService commentService;
 
     @Test
     void findByOwnerId() {
         User user = userService.create(makeTestUser());
         itemService.create(user.getId(), makeTestItem(), Optional.empty());
 
-        List<Item> items = itemService.findByOwnerId(user.getId());
+        List<ItemView> items = itemService.findByOwnerId(user.getId());
         assertEquals(1, items.size());
     }
 
@@ -75,6 +107,211 @@ class ItemServiceImplTest {
         assertTrue(result.getId() > 0);
     }
 
+    @Test
+    void createAllInsertsInBatches() {
+        User user = userService.create(makeTestUser());
+        Request request = requestService.create(user.getId(), makeTestRequest());
+        List<ItemCreateDto> itemDtos = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            ItemCreateDto itemDto = new ItemCreateDto();
+            itemDto.setName("Hummer " + i);
+            itemDto.setDescription("Good Hummer");
+            itemDto.setAvailable(true);
+            itemDto.setRequestId(i % 2 == 0 ? request.getId() : null);
+            itemDtos.add(itemDto);
+        }
+        entityManager.flush();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            List<Item> result = itemService.createAll(user.getId(), itemDtos);
+            entityManager.flush();
+
+            assertEquals(120, result.size());
+            assertEquals(120, result.stream().map(Item::getId).distinct().count());
+            // Запрос владельца и запросов, несколько вызовов последовательности и по одной вставке на пачку
+            assertTrue(statistics.getPrepareStatementCount() <= 10,
+                    "prepared statements: " + statistics.getPrepareStatementCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+        assertEquals(60, itemService.findByRequestId(request.getId()).size());
+    }
+
+    @Test
+    void createAllRejectsInvalidItems() {
+        User user = userService.create(makeTestUser());
+        ItemCreateDto blankName = makeTestItemDto(" ");
+        ItemCreateDto noDescription = makeTestItemDto("Дрель");
+        noDescription.setDescription(null);
+        ItemCreateDto noAvailable = makeTestItemDto("Дрель");
+        noAvailable.setAvailable(null);
+
+        for (ItemCreateDto invalid : List.of(blankName, noDescription, noAvailable)) {
+            List<ItemCreateDto> itemDtos = List.of(makeTestItemDto("Отвертка"), invalid);
+            assertThrows(ValidationException.class, () -> itemService.createAll(user.getId(), itemDtos));
+        }
+        List<ItemCreateDto> tooMany = new ArrayList<>();
+        for (int i = 0; i <= ItemServiceImpl.CREATE_ALL_MAX_SIZE; i++) {
+            tooMany.add(makeTestItemDto("Дрель " + i));
+        }
+        assertThrows(ValidationException.class, () -> itemService.createAll(user.getId(), tooMany));
+        assertThrows(ValidationException.class, () -> itemService.create(user.getId(), new Item(), Optional.empty()));
+        assertTrue(itemService.findByOwnerId(user.getId()).isEmpty());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void createAllIndexesItemsAfterCommit() {
+        clearInvocations(itemSearchIndex);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<ItemCreateDto> itemDtos = List.of(makeTestItemDto("Дрель"), makeTestItemDto("Отвертка"));
+
+        transaction.executeWithoutResult(status -> {
+            User user = userService.create(makeTestUser());
+            itemService.createAll(user.getId(), itemDtos);
+            status.setRollbackOnly();
+        });
+
+        verify(itemSearchIndex, never()).index(any());
+
+        User user = userService.create(makeTestUser());
+        try {
+            List<Item> result = transaction.execute(status -> {
+                List<Item> created = itemService.createAll(user.getId(), itemDtos);
+                verify(itemSearchIndex, never()).index(any());
+                return created;
+            });
+
+            assertNotNull(result);
+            verify(itemSearchIndex, times(2)).index(any());
+            itemRepository.deleteAllById(result.stream().map(Item::getId).toList());
+        } finally {
+            userService.delete(user.getId());
+        }
+    }
+
+    @Test
+    void cardVersionGrowsWithCardChanges() {
+        User owner = userService.create(makeTestUser());
+        User booker = new User();
+        booker.setName("Jane Doe");
+        booker.setEmail("jane.doe@mail.com");
+        booker = userService.create(booker);
+        Item item = itemService.create(owner.getId(), makeTestItem(), Optional.empty());
+        Instant now = Instant.now();
+
+        ItemCardVersion initial = findCardVersion(item.getId(), now);
+        assertNull(initial.nextBoundary());
+
+        Booking past = bookingService.create(booker.getId(), item.getId(),
+                now.minus(2, ChronoUnit.DAYS), now.minus(1, ChronoUnit.DAYS));
+        ItemCardVersion booked = findCardVersion(item.getId(), now);
+        assertTrue(booked.cardVersion() > initial.cardVersion());
+
+        Comment comment = new Comment();
+        comment.setText("Отличная вещь");
+        commentService.create(item.getId(), booker.getId(), comment);
+        ItemCardVersion commented = findCardVersion(item.getId(), now);
+        assertTrue(commented.cardVersion() > booked.cardVersion());
+
+        bookingService.approve(past.getId(), owner.getId(), false);
+        ItemCardVersion rejected = findCardVersion(item.getId(), now);
+        assertTrue(rejected.cardVersion() > commented.cardVersion());
+
+        User rename = new User();
+        rename.setId(booker.getId());
+        rename.setName("Jane Smith");
+        userService.update(rename);
+        ItemCardVersion renamed = findCardVersion(item.getId(), now);
+        assertTrue(renamed.cardVersion() > rejected.cardVersion());
+        assertEquals(initial.itemVersion(), renamed.itemVersion());
+
+        // Следующей границей служит ближайшее начало или окончание брони
+        Booking next = bookingService.create(booker.getId(), item.getId(),
+                now.plus(1, ChronoUnit.DAYS), now.plus(2, ChronoUnit.DAYS));
+        entityManager.flush();
+        entityManager.refresh(next);
+        assertEquals(next.getStart(), findCardVersion(item.getId(), now).nextBoundary());
+        assertEquals(next.getEnd(), findCardVersion(item.getId(), next.getStart().plusSeconds(1)).nextBoundary());
+        assertNull(findCardVersion(item.getId(), next.getEnd().plusSeconds(1)).nextBoundary());
+    }
+
+    @Test
+    void findByIdWithCommentsAndBookingsUsesOneQuery() {
+        User owner = userService.create(makeTestUser());
+        User booker = new User();
+        booker.setName("Jane Doe");
+        booker.setEmail("jane.doe@mail.com");
+        booker = userService.create(booker);
+        Item item = itemService.create(owner.getId(), makeTestItem(), Optional.empty());
+        Instant now = Instant.now();
+        Booking past = bookingService.create(booker.getId(), item.getId(),
+                now.minus(3, ChronoUnit.DAYS), now.minus(2, ChronoUnit.DAYS));
+        Booking current = bookingService.create(booker.getId(), item.getId(),
+                now.minus(1, ChronoUnit.DAYS), now.plus(1, ChronoUnit.DAYS));
+        Booking next = bookingService.create(booker.getId(), item.getId(),
+                now.plus(2, ChronoUnit.DAYS), now.plus(3, ChronoUnit.DAYS));
+        bookingService.create(booker.getId(), item.getId(), now.plus(4, ChronoUnit.DAYS), now.plus(5, ChronoUnit.DAYS));
+        for (String text : List.of("Отличная вещь", "Рекомендую")) {
+            Comment comment = new Comment();
+            comment.setText(text);
+            commentService.create(item.getId(), booker.getId(), comment);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            ItemWithCommentsAndBookingsDto card =
+                    (ItemWithCommentsAndBookingsDto) itemService.findByIdWithCommentsAndBookings(item.getId());
+
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals("John Doe", card.getOwner().getName());
+            assertEquals(List.of("Отличная вещь", "Рекомендую"),
+                    card.getComments().stream().map(CommentDto::getText).toList());
+            assertEquals("Jane Doe", card.getComments().getFirst().getAuthorName());
+            assertEquals(current.getId(), card.getLastBooking().getId());
+            assertEquals(next.getId(), card.getNextBooking().getId());
+            assertEquals("Jane Doe", card.getNextBooking().getBooker().getName());
+            assertEquals("Hummer", card.getNextBooking().getItem().getName());
+            assertNotEquals(past.getId(), card.getLastBooking().getId());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    void findByIdWithCommentsAndBookingsWithoutCommentsAndBookings() {
+        User owner = userService.create(makeTestUser());
+        Item item = itemService.create(owner.getId(), makeTestItem(), Optional.empty());
+
+        ItemWithCommentsAndBookingsDto card =
+                (ItemWithCommentsAndBookingsDto) itemService.findByIdWithCommentsAndBookings(item.getId());
+
+        assertEquals(item.getId(), card.getId());
+        assertTrue(card.getComments().isEmpty());
+        assertNull(card.getLastBooking());
+        assertNull(card.getNextBooking());
+        assertThrows(DataNotFoundException.class, () -> itemService.findByIdWithCommentsAndBookings(item.getId() + 1000));
+    }
+
+    private ItemCardVersion findCardVersion(long itemId, Instant now) {
+        return itemRepository.findCardVersion(itemId, now).orElseThrow();
+    }
+
+    private static ItemCreateDto makeTestItemDto(String name) {
+        ItemCreateDto itemDto = new ItemCreateDto();
+        itemDto.setName(name);
+        itemDto.setDescription("Good " + name);
+        itemDto.setAvailable(true);
+        return itemDto;
+    }
+
     private static User makeTestUser() {
         User user = new User();
         user.setName("John Doe");
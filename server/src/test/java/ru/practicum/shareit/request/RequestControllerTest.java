@@ -6,8 +6,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.common.PageCursor;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.request.dto.RequestDto;
@@ -20,14 +23,17 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Optional;
 
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -68,26 +74,36 @@ class RequestControllerTest {
 
     @Test
     void findAll() throws Exception {
-        when(requestService.findAll())
-                .thenReturn(List.of(request));
+        RequestView view = mock(RequestView.class);
+        when(view.getId()).thenReturn(request.getId());
+        when(view.getDescription()).thenReturn(request.getDescription());
+        when(view.getCreatedAt()).thenReturn(now);
+        when(view.getRequestorId()).thenReturn(user.getId());
+        when(view.getRequestorName()).thenReturn(user.getName());
+        when(requestService.findAll(anyLong(), any(), anyInt()))
+                .thenReturn(Window.from(List.of(view), index -> ScrollPosition.keyset(), true));
 
         mvc.perform(get(URI_PATH + "/all")
+                        .header("X-Sharer-User-Id", 2L)
+                        .param("size", "1")
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", is(notNullValue())))
                 .andExpect(jsonPath("$[0]", is(notNullValue())))
-                .andExpect(jsonPath("$[0].id", is(request.getId()), Long.class));
-
-        verify(requestService, times(1)).findAll();
+                .andExpect(jsonPath("$[0].id", is(request.getId()), Long.class))
+                .andExpect(header().string(PageCursor.HEADER, new PageCursor(now, request.getId()).encode()));
 
+        verify(requestService, times(1)).findAll(2, null, 1);
     }
 
     @Test
     void findByRequestorId() throws Exception {
+        when(requestService.findVersionByRequestorId(anyLong()))
+                .thenReturn(Optional.of(mock(RequestVersion.class)));
         when(requestService.findByRequestorId(anyLong()))
-                .thenReturn(List.of(request));
+                .thenReturn(List.of(RequestMapper.toDto(request, List.of())));
 
         mvc.perform(get(URI_PATH)
                         .header("X-Sharer-User-Id", user.getId())
@@ -97,7 +113,31 @@ class RequestControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", is(notNullValue())))
                 .andExpect(jsonPath("$[0]", is(notNullValue())))
-                .andExpect(jsonPath("$[0].requestor.id", is(user.getId()), Long.class));
+                .andExpect(jsonPath("$[0].requestor.id", is(user.getId()), Long.class))
+                .andExpect(jsonPath("$[0].items", is(notNullValue())))
+                .andExpect(header().exists("ETag"));
+
+        verify(requestService, times(1)).findByRequestorId(1);
+    }
+
+    @Test
+    void findByRequestorIdNotModified() throws Exception {
+        RequestVersion version = mock(RequestVersion.class);
+        when(version.getRequestCount()).thenReturn(1L);
+        when(requestService.findVersionByRequestorId(anyLong()))
+                .thenReturn(Optional.of(version));
+
+        String eTag = mvc.perform(get(URI_PATH)
+                        .header("X-Sharer-User-Id", user.getId())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(get(URI_PATH)
+                        .header("X-Sharer-User-Id", user.getId())
+                        .header("If-None-Match", eTag)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified());
 
         verify(requestService, times(1)).findByRequestorId(1);
     }
@@ -112,6 +152,8 @@ class RequestControllerTest {
 
         RequestWithItemsDto withItemsDto = RequestMapper.toDto(request, List.of(ItemMapper.toDto(item)));
 
+        when(requestService.findVersionById(anyLong()))
+                .thenReturn(mock(RequestVersion.class));
         when(requestService.findByIdWithItems(anyLong()))
                 .thenReturn(withItemsDto);
 
@@ -125,7 +167,8 @@ class RequestControllerTest {
                 .andExpect(jsonPath("$.requestor", is(notNullValue())))
                 .andExpect(jsonPath("$.requestor.id", is(user.getId()), Long.class))
                 .andExpect(jsonPath("$.items", is(notNullValue())))
-                .andExpect(jsonPath("$.items[0].id", is(item.getId()), Long.class));
+                .andExpect(jsonPath("$.items[0].id", is(item.getId()), Long.class))
+                .andExpect(header().exists("ETag"));
 
         verify(requestService, times(1)).findByIdWithItems(1);
     }
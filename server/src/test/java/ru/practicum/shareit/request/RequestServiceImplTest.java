@@ -1,23 +1,30 @@
 package ru.practicum.shareit.request;
 
+import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Window;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.common.PageCursor;
 import ru.practicum.shareit.request.dto.RequestWithItemsDto;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserService;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Transactional
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
@@ -30,25 +37,55 @@ class RequestServiceImplTest {
     @Test
     void findAll() {
         User user = userService.create(makeTestUser());
-        Request request = makeTestRequest();
-        request.setRequestor(user);
-        requestService.create(user.getId(), request);
+        User other = userService.create(makeOtherUser());
+        requestService.create(user.getId(), makeTestRequest());
 
-        List<Request> requests = requestService.findAll();
+        assertFalse(requestService.findAll(other.getId(), null, 10).isEmpty());
+        assertTrue(requestService.findAll(user.getId(), null, 10).isEmpty());
+    }
 
-        assertFalse(requests.isEmpty());
+    @Test
+    void findAllByPages() {
+        User user = userService.create(makeTestUser());
+        User other = userService.create(makeOtherUser());
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.addFirst(requestService.create(user.getId(), makeTestRequest()).getId());
+        }
+
+        Window<RequestView> first = requestService.findAll(other.getId(), null, 2);
+        RequestView last = first.getContent().getLast();
+        Window<RequestView> second = requestService.findAll(other.getId(),
+                new PageCursor(last.getCreatedAt(), last.getId()), 2);
+
+        assertTrue(first.hasNext());
+        assertFalse(second.hasNext());
+        assertEquals(ids, Stream.concat(first.stream(), second.stream()).map(RequestView::getId).toList());
     }
 
     @Test
-    void findByRequestorId() {
+    void findAllRejectsUnboundedPageSize() {
         User user = userService.create(makeTestUser());
-        Request request = makeTestRequest();
-        request.setRequestor(user);
-        requestService.create(user.getId(), request);
 
-        List<Request> requests = requestService.findByRequestorId(user.getId());
+        assertThrows(ValidationException.class, () -> requestService.findAll(user.getId(), null, Integer.MAX_VALUE));
+        assertThrows(ValidationException.class, () -> requestService.findAll(user.getId(), null, 0));
+    }
 
-        assertFalse(requests.isEmpty());
+    @Test
+    void findByRequestorId() {
+        User user = userService.create(makeTestUser());
+        User other = userService.create(makeOtherUser());
+        Request answered = requestService.create(user.getId(), makeTestRequest());
+        requestService.create(user.getId(), makeTestRequest());
+        itemService.create(other.getId(), makeTestItem(), Optional.of(answered.getId()));
+        itemService.create(other.getId(), makeTestItem(), Optional.of(answered.getId()));
+
+        List<RequestWithItemsDto> requests = requestService.findByRequestorId(user.getId());
+
+        assertEquals(2, requests.size());
+        assertEquals(0, requests.get(0).getItems().size());
+        assertEquals(answered.getId(), requests.get(1).getId());
+        assertEquals(2, requests.get(1).getItems().size());
     }
 
     @Test
@@ -80,6 +117,25 @@ class RequestServiceImplTest {
         assertFalse(result.getItems().isEmpty());
     }
 
+    @Test
+    void findVersionChangesWithAnsweringItem() {
+        User user = userService.create(makeTestUser());
+        User other = userService.create(makeOtherUser());
+        Request request = requestService.create(user.getId(), makeTestRequest());
+
+        RequestVersion before = requestService.findVersionById(request.getId());
+        RequestVersion listBefore = requestService.findVersionByRequestorId(user.getId()).orElseThrow();
+        Item item = itemService.create(other.getId(), makeTestItem(), Optional.of(request.getId()));
+        RequestVersion after = requestService.findVersionById(request.getId());
+        RequestVersion listAfter = requestService.findVersionByRequestorId(user.getId()).orElseThrow();
+
+        assertEquals(0, before.getItemCount());
+        assertEquals(1, after.getItemCount());
+        assertEquals(item.getId(), after.getLastItemId());
+        assertEquals(1, listAfter.getItemCount() - listBefore.getItemCount());
+        assertTrue(requestService.findVersionByRequestorId(user.getId() + 1000).isEmpty());
+    }
+
     @Test
     void create() {
         User user = userService.create(makeTestUser());
@@ -104,6 +160,13 @@ class RequestServiceImplTest {
         return user;
     }
 
+    private static User makeOtherUser() {
+        User user = new User();
+        user.setName("Jane Doe");
+        user.setEmail("jane.doe@mail.com");
+        return user;
+    }
+
     private static Item makeTestItem() {
         Item item = new Item();
         item.setName("Hummer");
@@ -19,6 +19,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -46,6 +48,7 @@ class UserControllerTest {
         userDto.setEmail("john.doe@mail.com");
 
         user = UserMapper.toModel(userDto);
+        user.setVersion(2L);
     }
 
     @Test
@@ -78,11 +81,34 @@ class UserControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id", is(userDto.getId()), Long.class))
                 .andExpect(jsonPath("$.name", is(userDto.getName())))
-                .andExpect(jsonPath("$.email", is(userDto.getEmail())));
+                .andExpect(jsonPath("$.email", is(userDto.getEmail())))
+                .andExpect(header().string("ETag", "\"user-1-2\""))
+                .andExpect(header().string("Cache-Control", "no-cache"));
 
         verify(userService, times(1)).findById(1);
     }
 
+    @Test
+    void findByIdNotModified() throws Exception {
+        when(userService.findById(anyLong()))
+                .thenReturn(user);
+
+        mvc.perform(get(URI_PATH + "/" + userDto.getId())
+                        .header("If-None-Match", "\"user-1-2\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"user-1-2\""))
+                .andExpect(content().string(""));
+
+        user.setVersion(3L);
+
+        mvc.perform(get(URI_PATH + "/" + userDto.getId())
+                        .header("If-None-Match", "\"user-1-2\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"user-1-3\""));
+    }
+
     @Test
     void create() throws Exception {
         when(userService.create(any(User.class)))
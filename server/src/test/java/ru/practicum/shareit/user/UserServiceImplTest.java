@@ -5,7 +5,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.common.exception.DataNotFoundException;
 
 import java.util.List;
@@ -13,7 +19,10 @@ import java.util.List;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Transactional
@@ -21,6 +30,8 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 @SpringBootTest
 class UserServiceImplTest {
     private final UserService service;
+    private final CacheManager cacheManager;
+    private final PlatformTransactionManager transactionManager;
     private User testUser;
 
     @BeforeEach
@@ -46,6 +57,61 @@ class UserServiceImplTest {
         assertThat(result.getId(), notNullValue());
     }
 
+    // Внутри транзакции кэш пополняется только после коммита, поэтому тест идёт без неё
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void findByIdIsCachedAsSnapshot() {
+        User user = service.create(testUser);
+        CaffeineCache cache = (CaffeineCache) cacheManager.getCache(UserServiceImpl.USERS_CACHE);
+        try {
+            long hits = cache.getNativeCache().stats().hitCount();
+
+            User first = service.findById(user.getId());
+            first.setName("Changed");
+            User second = service.findById(user.getId());
+
+            assertThat(second, not(sameInstance(first)));
+            assertThat(second.getName(), equalTo(testUser.getName()));
+            assertThat(cache.getNativeCache().stats().hitCount(), equalTo(hits + 1));
+        } finally {
+            service.delete(user.getId());
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void updateEvictsCachedUserAfterCommit() {
+        User user = service.create(testUser);
+        Cache cache = cacheManager.getCache(UserServiceImpl.USERS_CACHE);
+        try {
+            service.findById(user.getId());
+
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                User update = new User();
+                update.setId(user.getId());
+                update.setName("Abram");
+                service.update(update);
+
+                assertThat(cache.get(user.getId()), notNullValue());
+            });
+
+            assertThat(cache.get(user.getId()), nullValue());
+            assertThat(service.findById(user.getId()).getName(), equalTo("Abram"));
+        } finally {
+            service.delete(user.getId());
+        }
+    }
+
+    @Test
+    void checkForExists() {
+        User user = service.create(testUser);
+
+        service.checkForExists(user.getId());
+
+        assertThrows(DataNotFoundException.class,
+                () -> service.checkForExists(user.getId() + 1000));
+    }
+
     @Test
     void create() {
         User user = service.create(testUser);